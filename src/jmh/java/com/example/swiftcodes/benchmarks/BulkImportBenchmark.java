@@ -0,0 +1,61 @@
+package com.example.swiftcodes.benchmarks;
+
+import com.example.swiftcodes.SyntheticSwiftCodes;
+import com.example.swiftcodes.initializer.SwiftCodeBulkLoader;
+import com.example.swiftcodes.models.SwiftCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import of a parsed directory into an embedded H2 database: chunked batch inserts
+ * followed by the headquarter-prefix linking pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BulkImportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private List<SwiftCode> codes;
+    private JdbcTemplate jdbcTemplate;
+    private SwiftCodeBulkLoader loader;
+    private Flyway flyway;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codes = SyntheticSwiftCodes.generate(rows, 42);
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:bulk-import;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        loader = new SwiftCodeBulkLoader(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new SimpleMeterRegistry(), batchSize, 0);
+    }
+
+    @Setup(Level.Invocation)
+    public void recreateTables() {
+        flyway.clean();
+        flyway.migrate();
+    }
+
+    @Benchmark
+    public SwiftCodeBulkLoader.ImportResult importAndLink() {
+        return loader.load(sink -> codes.forEach(sink));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.swiftcodes.benchmarks;
+
+import com.example.swiftcodes.SyntheticSwiftCodes;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeParser;
+import org.apache.poi.util.IOUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private final SwiftCodeParser parser = new SwiftCodeParser();
+    private Path workbook;
+
+    @Setup(Level.Trial)
+    public void writeWorkbook() throws Exception {
+        IOUtils.setByteArrayMaxOverride(Integer.MAX_VALUE);
+        workbook = SyntheticSwiftCodes.writeWorkbook(
+                SyntheticSwiftCodes.generate(rows, 42), Files.createTempFile("swift-codes-" + rows, ".xlsx"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws Exception {
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public List<SwiftCode> workbookParser() throws Exception {
+        try (InputStream is = Files.newInputStream(workbook)) {
+            return parser.parseExcelFile(is);
+        }
+    }
+
+    @Benchmark
+    public long streamingParser(Blackhole blackhole) throws Exception {
+        return parser.streamExcelFile(new FileSystemResource(workbook), blackhole::consume);
+    }
+}
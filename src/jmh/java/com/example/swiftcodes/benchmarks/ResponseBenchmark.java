@@ -0,0 +1,142 @@
+package com.example.swiftcodes.benchmarks;
+
+import com.example.swiftcodes.SyntheticSwiftCodes;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.lookup.SwiftCodeVersions;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import com.example.swiftcodes.services.SwiftCodeResponseCache;
+import com.example.swiftcodes.services.SwiftCodeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Response construction in SwiftCodeService and its Jackson serialization, with the
+ * repository replaced by an in-memory stub so that only the mapping cost is measured.
+ * The precomputed variants read the bytes SwiftCodeResponseCache keeps per code; run with
+ * -prof gc to compare the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResponseBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean lookupEnabled;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SwiftCodeVersions versions = new SwiftCodeVersions();
+    private SwiftCodeResponseCache responseCache;
+    private SwiftCodeService service;
+    private String headquarter;
+    private String branch;
+    private String country;
+    private Object headquarterDetails;
+    private Object countryListing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(rows, 42));
+        SwiftCodeRepository repository = inMemoryRepository(views);
+        SwiftCodeLookup lookup = new SwiftCodeLookup(repository, versions, new SimpleMeterRegistry(), lookupEnabled);
+        service = new SwiftCodeService(repository, null, lookup, null, null, null, objectMapper, 1000, 10000, 100);
+        responseCache = new SwiftCodeResponseCache(objectMapper, lookup, 1 << 20, 100_000, 1024);
+
+        Map<String, Long> branchCounts = views.stream()
+                .filter(view -> view.headquarterCode() != null)
+                .collect(Collectors.groupingBy(SwiftCodeView::headquarterCode, Collectors.counting()));
+        headquarter = branchCounts.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        branch = views.stream().filter(view -> headquarter.equals(view.headquarterCode())).findFirst().orElseThrow().swiftCode();
+        country = views.get(0).countryISO2();
+
+        headquarterDetails = service.getSwiftCodeDetails(headquarter);
+        countryListing = service.getSwiftCodesByCountry(country);
+    }
+
+    @Benchmark
+    public Object headquarterDetails() {
+        return service.getSwiftCodeDetails(headquarter);
+    }
+
+    @Benchmark
+    public Object branchDetails() {
+        return service.getSwiftCodeDetails(branch);
+    }
+
+    @Benchmark
+    public Object countryListing() {
+        return service.getSwiftCodesByCountry(country);
+    }
+
+    @Benchmark
+    public byte[] serializeHeadquarterDetails() throws Exception {
+        return objectMapper.writeValueAsBytes(headquarterDetails);
+    }
+
+    @Benchmark
+    public byte[] serializeCountryListing() throws Exception {
+        return objectMapper.writeValueAsBytes(countryListing);
+    }
+
+    @Benchmark
+    public byte[] headquarterDetailsEndToEnd() throws Exception {
+        return objectMapper.writeValueAsBytes(service.getSwiftCodeDetails(headquarter));
+    }
+
+    /** The controller's hot path with pre-serialized bodies: tag lookup plus cached bytes. */
+    @Benchmark
+    public byte[] headquarterDetailsPrecomputed() throws Exception {
+        return responseCache.detail(headquarter, versions.codeTag(headquarter), () -> service.getSwiftCodeDetails(headquarter)).identity();
+    }
+
+    @Benchmark
+    public byte[] headquarterDetailsPrecomputedGzip() throws Exception {
+        return responseCache.detail(headquarter, versions.codeTag(headquarter), () -> service.getSwiftCodeDetails(headquarter)).gzip();
+    }
+
+    static SwiftCodeRepository inMemoryRepository(List<SwiftCodeView> views) {
+        Map<String, SwiftCodeView> byCode = views.stream()
+                .collect(Collectors.toMap(SwiftCodeView::swiftCode, Function.identity()));
+        Map<String, List<SwiftCodeView>> byHeadquarter = views.stream()
+                .filter(view -> view.headquarterCode() != null)
+                .collect(Collectors.groupingBy(SwiftCodeView::headquarterCode));
+        Map<String, List<SwiftCodeView>> byCountry = views.stream()
+                .sorted(Comparator.comparing(SwiftCodeView::swiftCode))
+                .collect(Collectors.groupingBy(SwiftCodeView::countryISO2));
+
+        return (SwiftCodeRepository) Proxy.newProxyInstance(
+                SwiftCodeRepository.class.getClassLoader(),
+                new Class<?>[]{SwiftCodeRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllViews" -> views;
+                    case "findViewWithBranches" -> {
+                        SwiftCodeView code = byCode.get((String) args[0]);
+                        if (code == null) {
+                            yield List.of();
+                        }
+                        List<SwiftCodeView> rows = new ArrayList<>();
+                        rows.add(code);
+                        rows.addAll(byHeadquarter.getOrDefault(code.swiftCode(), List.of()));
+                        yield rows;
+                    }
+                    case "findViewsByCountryISO2" -> byCountry.getOrDefault((String) args[0], List.of());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.swiftcodes.benchmarks;
+
+import com.example.swiftcodes.SyntheticSwiftCodes;
+import com.example.swiftcodes.models.SwiftCode;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the repository finders' SQL against the schema before (V1, as ddl-auto used to create
+ * it) and after the V2 migration (CHAR columns, country table, explicit indexes). Each schema version
+ * gets its own database ({version} in the URL), built once and reused by later trials and runs.
+ * Runs on H2 files by default; pass -p url=jdbc:mysql://host/swift_v{version} -p user=... -p password=...
+ * to measure MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SchemaBenchmark {
+
+    private static final String V1_INSERT_SQL = "INSERT INTO swift_code " +
+            "(swift_code, bank_name, address, countryiso2, country_name, is_headquarter) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String V1_LINK_SQL = "UPDATE swift_code b SET related_headquarter_id = " +
+            "(SELECT h.id FROM swift_code h WHERE h.swift_code = CONCAT(SUBSTRING(b.swift_code, 1, 8), 'XXX')) " +
+            "WHERE b.is_headquarter = false";
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1", "2"})
+    public String schemaVersion;
+
+    @Param({"jdbc:h2:file:./target/schema-benchmark/v{version};MODE=MySQL;OPTIMIZE_REUSE_RESULTS=FALSE"})
+    public String url;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SwiftCode[] headquarters;
+    private long[] headquarterIds;
+    private int next;
+    private String listingSql;
+    private String pageSql;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // One connection for the whole trial: an embedded H2 file database is closed and reopened with every new one.
+        dataSource = new SingleConnectionDataSource(url.replace("{version}", schemaVersion), user, password, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        List<SwiftCode> codes = SyntheticSwiftCodes.generate(rows, 42);
+        if (!isBuilt(dataSource)) {
+            build(dataSource, codes);
+        }
+
+        // Each version runs the queries the repository issued against it; V2's also order by the constant country.
+        if ("2".equals(schemaVersion)) {
+            String columns = "s.swift_code, s.bank_name, s.address, s.countryiso2, c.name, s.is_headquarter, h.swift_code " +
+                    "FROM swift_code s JOIN country c ON c.iso2 = s.countryiso2 LEFT JOIN swift_code h ON h.id = s.related_headquarter_id ";
+            listingSql = "SELECT " + columns + "WHERE s.countryiso2 = ? ORDER BY s.countryiso2, s.swift_code";
+            pageSql = "SELECT " + columns + "WHERE s.countryiso2 = ? AND s.swift_code > ? ORDER BY s.countryiso2, s.swift_code LIMIT 100";
+        } else {
+            String columns = "s.swift_code, s.bank_name, s.address, s.countryiso2, s.country_name, s.is_headquarter, h.swift_code " +
+                    "FROM swift_code s LEFT JOIN swift_code h ON h.id = s.related_headquarter_id ";
+            listingSql = "SELECT " + columns + "WHERE s.countryiso2 = ? ORDER BY s.swift_code";
+            pageSql = "SELECT " + columns + "WHERE s.countryiso2 = ? AND s.swift_code > ? ORDER BY s.swift_code LIMIT 100";
+        }
+
+        // Keys rotate so that no query is answered from a result cache.
+        headquarters = codes.stream().filter(SwiftCode::isHeadquarter).limit(1024).toArray(SwiftCode[]::new);
+        headquarterIds = new long[headquarters.length];
+        for (int i = 0; i < headquarters.length; i++) {
+            headquarterIds[i] = jdbcTemplate.queryForObject("SELECT id FROM swift_code WHERE swift_code = ?", Long.class,
+                    headquarters[i].getSwiftCode());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    private boolean isBuilt(DataSource dataSource) {
+        MigrationInfo current = Flyway.configure().dataSource(dataSource).load().info().current();
+        return current != null && schemaVersion.equals(current.getVersion().getVersion())
+                && jdbcTemplate.queryForObject("SELECT COUNT(*) FROM swift_code", Long.class) == rows;
+    }
+
+    private void build(DataSource dataSource, List<SwiftCode> codes) {
+        Flyway v1 = Flyway.configure().dataSource(dataSource).cleanDisabled(false).target("1").load();
+        v1.clean();
+        v1.migrate();
+
+        for (int from = 0; from < codes.size(); from += 5000) {
+            jdbcTemplate.batchUpdate(V1_INSERT_SQL, codes.subList(from, Math.min(codes.size(), from + 5000)), 5000, (ps, code) -> {
+                ps.setString(1, code.getSwiftCode());
+                ps.setString(2, code.getBankName());
+                ps.setString(3, code.getAddress());
+                ps.setString(4, code.getCountryISO2());
+                ps.setString(5, code.getCountryName());
+                ps.setBoolean(6, code.isHeadquarter());
+            });
+        }
+        jdbcTemplate.update(V1_LINK_SQL);
+
+        Flyway.configure().dataSource(dataSource).target(schemaVersion).load().migrate();
+    }
+
+    /** findBySwiftCodeAndBankNameAndCountryISO2, used by delete. */
+    @Benchmark
+    public List<Long> codeBankAndCountry() {
+        SwiftCode headquarter = headquarters[next++ & 1023];
+        return jdbcTemplate.queryForList("SELECT id FROM swift_code WHERE swift_code = ? AND bank_name = ? AND countryiso2 = ?",
+                Long.class, headquarter.getSwiftCode(), headquarter.getBankName(), headquarter.getCountryISO2());
+    }
+
+    /** findByRelatedHeadquarterId, used when a headquarter is deleted. */
+    @Benchmark
+    public List<Long> branchesOfHeadquarter() {
+        return jdbcTemplate.queryForList("SELECT id FROM swift_code WHERE related_headquarter_id = ?", Long.class, headquarterIds[next++ & 1023]);
+    }
+
+    /** existsByCountryISO2 for countries without codes, the worst case. */
+    @Benchmark
+    public List<Integer> missingCountryExists() {
+        String missing = new String(new char[]{'Q', (char) ('A' + (next++ % 26))});
+        return jdbcTemplate.queryForList("SELECT 1 FROM swift_code WHERE countryiso2 = ? LIMIT 1", Integer.class, missing);
+    }
+
+    /** findViewsByCountryISO2After: one cursor page of a country listing. */
+    @Benchmark
+    public int countryPage() {
+        SwiftCode after = headquarters[next++ & 1023];
+        return jdbcTemplate.query(pageSql, rs -> {
+            int count = 0;
+            while (rs.next()) {
+                count++;
+            }
+            return count;
+        }, after.getCountryISO2(), after.getSwiftCode());
+    }
+
+    /** findViewsByCountryISO2: the full listing of one country, an eighth of the table. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int countryListing() {
+        String country = headquarters[next++ & 1023].getCountryISO2();
+        return jdbcTemplate.query(listingSql, rs -> {
+            int count = 0;
+            while (rs.next()) {
+                count++;
+            }
+            return count;
+        }, country);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.swiftcodes.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "swiftcodes.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(@Value("${swiftcodes.rate-limit.permits-per-second:100}") double permitsPerSecond,
+                                                         @Value("${swiftcodes.rate-limit.burst:200}") int burst,
+                                                         @Value("${swiftcodes.rate-limit.max-clients:100000}") int maxClients) {
+        return new TokenBucketRateLimiter(permitsPerSecond, burst, maxClients);
+    }
+
+    // Only the SWIFT code API is limited; actuator and Swagger UI stay reachable.
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(TokenBucketRateLimiter limiter,
+                                                                   @Value("${swiftcodes.rate-limit.client-header:}") String clientHeader,
+                                                                   MeterRegistry meterRegistry) {
+        if (clientHeader.isEmpty()) {
+            System.out.println("Rate limiting clients by remote address; behind a load balancer or proxy set " +
+                    "swiftcodes.rate-limit.client-header, otherwise all clients share one bucket.");
+        }
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(limiter, clientHeader, meterRegistry));
+        registration.addUrlPatterns("/v1/swift-codes", "/v1/swift-codes/*");
+        return registration;
+    }
+}
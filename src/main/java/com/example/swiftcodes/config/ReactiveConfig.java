@@ -0,0 +1,47 @@
+package com.example.swiftcodes.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The reactive profile. Tomcat stays on the classpath for the servlet API, and Spring Boot would
+ * otherwise run WebFlux on it; Reactor Netty gives the event-loop server the profile is meant to compare.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Spring Boot backs off its JDBC data source once an R2DBC connection factory exists, but JPA still
+     * needs one here for writes, imports and the lookup load. With a replica, ReadReplicaConfig provides it.
+     */
+    @Configuration
+    @ConditionalOnExpression("'${swiftcodes.datasource.replica.url:}'.isEmpty()")
+    static class JdbcDataSourceConfig {
+
+        @Bean
+        @Primary
+        @ConfigurationProperties("spring.datasource")
+        public DataSourceProperties dataSourceProperties() {
+            return new DataSourceProperties();
+        }
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource dataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.swiftcodes.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else to the primary.
+ * The decision is made when the connection is acquired, so the data source must be wrapped in a
+ * LazyConnectionDataSourceProxy: only then is the transaction's read-only flag known at that point.
+ *
+ * For max-lag after a read-write transaction commits, reads stay on the primary as well, so that a client that just
+ * wrote, and the response caches rebuilt under the new version tags, do not see the replica lagging.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final long maxLagNanos;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private volatile long primaryUntil = System.nanoTime();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.maxLagNanos = maxLag.toNanos();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryConnections = Counter.builder("swiftcodes.datasource.connections").tag("target", "primary")
+                .description("Connections handed out by the routing data source").register(meterRegistry);
+        this.replicaConnections = Counter.builder("swiftcodes.datasource.connections").tag("target", "replica")
+                .description("Connections handed out by the routing data source").register(meterRegistry);
+    }
+
+    /**
+     * Runs work that must see every committed write, such as rebuilding the in-memory lookup, on the
+     * primary even when it is called from a read-only transaction that has not touched the database yet.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && PINNED.get() == null && System.nanoTime() - primaryUntil >= 0) {
+            replicaConnections.increment();
+            return Target.REPLICA;
+        }
+        primaryConnections.increment();
+        if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+            writing();
+        }
+        return Target.PRIMARY;
+    }
+
+    // Only read-write transactions can commit a change the replica has yet to receive. Connections taken
+    // outside of one, such as pinned reads, the change feed's polls or health checks, never start the window.
+    private void writing() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // The window has to start at commit, not at the first statement of a long transaction.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                primaryUntil = System.nanoTime() + maxLagNanos;
+            }
+        });
+    }
+}
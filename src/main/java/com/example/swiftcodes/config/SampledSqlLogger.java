@@ -0,0 +1,30 @@
+package com.example.swiftcodes.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL statements Hibernate prepares, as a cheaper
+ * alternative to spring.jpa.show-sql, which prints every statement.
+ */
+public class SampledSqlLogger implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger(SampledSqlLogger.class);
+
+    private final double sampleRate;
+
+    public SampledSqlLogger(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.debug(sql);
+        }
+        return sql;
+    }
+}
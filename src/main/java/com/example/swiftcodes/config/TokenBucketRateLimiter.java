@@ -0,0 +1,83 @@
+package com.example.swiftcodes.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets, kept lock-free as one "theoretical arrival time" per client (the GCRA
+ * form of a token bucket): each request moves it one emission interval into the future, and a request
+ * that would move it more than the burst ahead of now is refused. One compare-and-set per request,
+ * no refill thread, and a client whose bucket is full again carries no state worth keeping.
+ * <p>
+ * At most maxClients buckets are kept. Once the map is full, idle clients are evicted; while none are
+ * idle, clients without a bucket share one overflow bucket, so a flood of new addresses neither grows
+ * the map nor frees the throttled clients already in it.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final Map<String, AtomicLong> clients = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+    private volatile long nextEviction = Long.MIN_VALUE;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, int maxClients) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+    }
+
+    /** Takes a token for the client; returns 0 if one was available, otherwise the nanoseconds until the next one. */
+    public long tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime());
+    }
+
+    long tryAcquire(String client, long now) {
+        AtomicLong arrival = clients.get(client);
+        if (arrival == null) {
+            if (clients.size() >= maxClients && !evictIdle(now)) {
+                arrival = overflow;
+            } else {
+                arrival = clients.computeIfAbsent(client, key -> new AtomicLong(now));
+            }
+        }
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int clients() {
+        return clients.size();
+    }
+
+    // A scan that frees nothing records when the first client will be idle, so the map is not rescanned
+    // for every new client until then.
+    private boolean evictIdle(long now) {
+        if (now < nextEviction) {
+            return false;
+        }
+        long[] soonest = {now + burstNanos};
+        clients.values().removeIf(arrival -> {
+            long next = arrival.get();
+            if (next <= now) {
+                return true;
+            }
+            soonest[0] = Math.min(soonest[0], next);
+            return false;
+        });
+        nextEviction = soonest[0];
+        return clients.size() < maxClients;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.swiftcodes.controllers;
+
+import com.example.swiftcodes.lookup.SwiftCodeVersions;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.services.ReactiveSwiftCodeService;
+import com.example.swiftcodes.services.SwiftCodeBulkWriter;
+import com.example.swiftcodes.services.SwiftCodeResponseCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The /v1/swift-codes API on WebFlux, active with the reactive profile in place of SwiftCodeController.
+ * Responses, status codes, ETags and encodings match the servlet controller.
+ */
+@RestController
+@RequestMapping("/v1/swift-codes")
+@Profile("reactive")
+@Tag(name = "Swift Codes", description = "Manage SWIFT codes in the system")
+public class ReactiveSwiftCodeController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveSwiftCodeService service;
+    private final SwiftCodeVersions versions;
+    private final SwiftCodeResponseCache responseCache;
+    private final int defaultPageSize;
+    private final boolean precomputedDetails;
+    private final CacheControl cacheControl;
+
+    public ReactiveSwiftCodeController(ReactiveSwiftCodeService service,
+                                       SwiftCodeVersions versions,
+                                       SwiftCodeResponseCache responseCache,
+                                       @Value("${swiftcodes.country.default-page-size:100}") int defaultPageSize,
+                                       @Value("${swiftcodes.cache.precomputed-details:true}") boolean precomputedDetails,
+                                       @Value("${swiftcodes.cache.max-age:60s}") Duration maxAge) {
+        this.service = service;
+        this.versions = versions;
+        this.responseCache = responseCache;
+        this.defaultPageSize = defaultPageSize;
+        this.precomputedDetails = precomputedDetails;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
+    }
+
+    @Operation(
+            summary = "Get SWIFT code details",
+            description = "Returns detailed information about a SWIFT code, including bank address and associated branches, if applicable."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "SWIFT code details"),
+            @ApiResponse(responseCode = "304", description = "SWIFT code unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "SWIFT code not found")
+    })
+    @GetMapping("/{swiftCode}")
+    public Mono<ResponseEntity<?>> getSwiftCodeDetails(@Parameter(description = "The SWIFT code to retrieve details for") @PathVariable String swiftCode,
+                                                       ServerWebExchange exchange) {
+        String version = versions.codeTag(swiftCode);
+        if (!precomputedDetails) {
+            if (exchange.checkNotModified(version)) {
+                return Mono.empty();
+            }
+            return service.getSwiftCodeDetails(swiftCode)
+                    .map(details -> ResponseEntity.ok().eTag(version).cacheControl(cacheControl).body(details));
+        }
+
+        String tag = representationTag(version, exchange);
+        if (exchange.checkNotModified(tag)) {
+            return Mono.empty();
+        }
+        SwiftCodeResponseCache.Body cached = responseCache.cachedDetail(swiftCode, version);
+        Mono<SwiftCodeResponseCache.Body> body = cached != null ? Mono.just(cached) : service.getSwiftCodeDetails(swiftCode)
+                .flatMap(details -> Mono.fromCallable(() -> responseCache.detail(swiftCode, version, () -> details)));
+        return body.map(encoded -> encoded(ResponseEntity.ok().eTag(tag).cacheControl(cacheControl), encoded, exchange));
+    }
+
+    @Operation(
+            summary = "Get SWIFT codes by country",
+            description = "Returns a list of SWIFT codes associated with a given country, based on the country ISO2 code."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of SWIFT codes for the country"),
+            @ApiResponse(responseCode = "304", description = "Country listing unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "No SWIFT codes found for the country")
+    })
+    @GetMapping("/country/{countryISO2}")
+    public Mono<ResponseEntity<?>> getSwiftCodesByCountry(
+            @Parameter(description = "The ISO2 country code to retrieve SWIFT codes") @PathVariable String countryISO2,
+            @Parameter(description = "Maximum number of SWIFT codes to return; enables cursor pagination") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            ServerWebExchange exchange) {
+        if (limit == null && after == null) {
+            String country = countryISO2.toUpperCase(Locale.ROOT);
+            String version = versions.countryTag(country);
+            String tag = representationTag(version, exchange);
+            if (exchange.checkNotModified(tag)) {
+                return Mono.empty();
+            }
+            SwiftCodeResponseCache.Body cached = responseCache.cachedCountry(country, version);
+            Mono<SwiftCodeResponseCache.Body> body = cached != null ? Mono.just(cached) : service.getSwiftCodesByCountry(country)
+                    .flatMap(listing -> Mono.fromCallable(() -> responseCache.country(country, version, () -> listing)));
+            return body.map(encoded -> encoded(ResponseEntity.ok().eTag(tag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT), encoded, exchange));
+        }
+        return service.getSwiftCodesByCountryPage(countryISO2, limit != null ? limit : defaultPageSize, after)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Stream SWIFT codes by country",
+            description = "Streams all SWIFT codes of a country as newline-delimited JSON, one code per line, reading rows only as fast as the client consumes them."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of SWIFT codes for the country"),
+            @ApiResponse(responseCode = "404", description = "No SWIFT codes found for the country")
+    })
+    @GetMapping(value = "/country/{countryISO2}", produces = NDJSON)
+    public Flux<Map<String, Object>> streamSwiftCodesByCountry(
+            @Parameter(description = "The ISO2 country code to retrieve SWIFT codes") @PathVariable String countryISO2) {
+        return service.streamSwiftCodesByCountry(countryISO2);
+    }
+
+    @Operation(
+            summary = "Look up many SWIFT codes",
+            description = "Resolves a list of SWIFT codes in one request. Every requested code gets a result entry; codes that do not exist are reported with found=false."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-code lookup results, in request order"),
+            @ApiResponse(responseCode = "400", description = "Too many SWIFT codes in one request, or a null code")
+    })
+    @PostMapping(value = "/_lookup", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Map<String, Object>> lookupSwiftCodes(@RequestBody List<String> swiftCodes) {
+        return service.lookupSwiftCodes(swiftCodes);
+    }
+
+    @Operation(
+            summary = "Search SWIFT codes",
+            description = "Finds SWIFT codes by code prefix or by words of the bank name, optionally tolerating typos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching SWIFT codes, code prefix matches first"),
+            @ApiResponse(responseCode = "400", description = "Invalid query, field, fuzzy or limit")
+    })
+    @GetMapping("/search")
+    public Mono<Map<String, Object>> searchSwiftCodes(
+            @Parameter(description = "Code prefix or bank name words; the last word may be incomplete") @RequestParam String q,
+            @Parameter(description = "Where to search: code, bank or all") @RequestParam(defaultValue = "all") String field,
+            @Parameter(description = "Maximum number of typos per code or word, 0 to 2") @RequestParam(defaultValue = "0") int fuzzy,
+            @Parameter(description = "Maximum number of results") @RequestParam(defaultValue = "10") int limit) {
+        return service.searchSwiftCodes(q, field, fuzzy, limit);
+    }
+
+    @Operation(
+            summary = "Get directory statistics",
+            description = "Returns the number of SWIFT codes, headquarters, branches, distinct banks and branches without a headquarter, for the whole directory and per country."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Directory totals and per-country counts, ordered by country code")
+    })
+    @GetMapping("/stats")
+    public Mono<Map<String, Object>> getStats() {
+        return service.getStats();
+    }
+
+    @Operation(
+            summary = "Get country statistics",
+            description = "Returns the number of SWIFT codes, headquarters, branches, distinct banks and branches without a headquarter in one country."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counts for the country"),
+            @ApiResponse(responseCode = "404", description = "No SWIFT codes found for the country")
+    })
+    @GetMapping("/stats/{countryISO2}")
+    public Mono<Map<String, Object>> getCountryStats(
+            @Parameter(description = "The ISO2 country code to count SWIFT codes for") @PathVariable String countryISO2) {
+        return service.getCountryStats(countryISO2);
+    }
+
+    @Operation(
+            summary = "Import an updated SWIFT directory",
+            description = "Applies a new directory file incrementally: codes missing from the database are inserted, changed codes updated and codes absent from the file deleted. Returns the change counts and duration. " +
+                    "A file that would delete a large share of the directory is refused unless allowMassDelete is set."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Delta applied"),
+            @ApiResponse(responseCode = "409", description = "Another import is already running"),
+            @ApiResponse(responseCode = "422", description = "The file has no codes or would delete more than the allowed share of the directory; nothing was written")
+    })
+    @PostMapping(value = "/_import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<?>> importDirectory(@Parameter(description = "SWIFT directory spreadsheet (.xlsx)") @RequestPart("file") FilePart file,
+                                                   @Parameter(description = "Apply the file even if it deletes more than swiftcodes.import.max-delete-fraction of the directory") @RequestParam(defaultValue = "false") boolean allowMassDelete) {
+        // The parser needs a seekable file, so the upload is spooled to disk first.
+        return Mono.fromCallable(() -> Files.createTempFile("swiftcodes-import", ".xlsx"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(path -> file.transferTo(path)
+                        .then(service.importDirectory(new FileSystemResource(path), allowMassDelete))
+                        .doFinally(signal -> deleteQuietly(path)))
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Add and delete SWIFT codes in bulk",
+            description = "Applies a list of insert and delete operations in one transaction and reports a result per item. " +
+                    "In all-or-nothing mode nothing is written if any operation fails; in best-effort mode the valid operations are applied."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operations applied; results in request order"),
+            @ApiResponse(responseCode = "400", description = "Unknown mode or too many operations"),
+            @ApiResponse(responseCode = "422", description = "An all-or-nothing request had failed operations; nothing was written")
+    })
+    @PostMapping("/_bulk")
+    public Mono<ResponseEntity<SwiftCodeBulkWriter.BulkResult>> bulkWrite(
+            @RequestBody List<SwiftCodeBulkWriter.Operation> operations,
+            @Parameter(description = "all-or-nothing or best-effort") @RequestParam(defaultValue = "all-or-nothing") String mode) {
+        return service.bulkWrite(operations, mode)
+                .map(result -> ResponseEntity.status(result.applied() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result));
+    }
+
+    @Operation(
+            summary = "Add a new SWIFT code",
+            description = "Adds a new SWIFT code to the system. Ensures the SWIFT code does not already exist."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "SWIFT code added successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or existing SWIFT code"),
+            @ApiResponse(responseCode = "409", description = "SWIFT code already exists")
+    })
+    @PostMapping
+    public Mono<SwiftCode> addSwiftCode(@RequestBody SwiftCode swiftCode) {
+        return service.addSwiftCode(swiftCode);
+    }
+
+    @Operation(
+            summary = "Delete a SWIFT code",
+            description = "Deletes a SWIFT code and its associated branches (if it is a headquarter)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "SWIFT code deleted successfully"),
+            @ApiResponse(responseCode = "404", description = "SWIFT code not found")
+    })
+    @DeleteMapping("/{swiftCode}")
+    public Mono<Map<String, String>> deleteSwiftCode(
+            @Parameter(description = "The SWIFT code to delete") @PathVariable String swiftCode,
+            @RequestParam String bankName,
+            @RequestParam String countryISO2) {
+        return service.deleteSwiftCode(swiftCode, bankName, countryISO2);
+    }
+
+    private static String representationTag(String version, ServerWebExchange exchange) {
+        return acceptsGzip(exchange) ? version + "-gzip" : version;
+    }
+
+    private static boolean acceptsGzip(ServerWebExchange exchange) {
+        String acceptEncoding = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static ResponseEntity<byte[]> encoded(ResponseEntity.BodyBuilder response, SwiftCodeResponseCache.Body body,
+                                                  ServerWebExchange exchange) {
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING).contentType(MediaType.APPLICATION_JSON);
+        if (body.gzip() != null && acceptsGzip(exchange)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.identity());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (Exception e) {
+            System.out.println("Could not delete upload " + path + ": " + e.getMessage());
+        }
+    }
+}
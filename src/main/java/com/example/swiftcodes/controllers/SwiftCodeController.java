@@ -1,24 +1,59 @@
 package com.example.swiftcodes.controllers;
 
+import com.example.swiftcodes.lookup.SwiftCodeVersions;
 import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.services.SwiftCodeBulkWriter;
+import com.example.swiftcodes.services.SwiftCodeResponseCache;
 import com.example.swiftcodes.services.SwiftCodeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/v1/swift-codes")
+@Profile("!reactive")
 @Tag(name = "Swift Codes", description = "Manage SWIFT codes in the system")
 public class SwiftCodeController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final SwiftCodeService service;
+    private final SwiftCodeVersions versions;
+    private final SwiftCodeResponseCache responseCache;
+    private final int defaultPageSize;
+    private final boolean precomputedDetails;
+    private final CacheControl cacheControl;
 
-    public SwiftCodeController(SwiftCodeService service) {
+    public SwiftCodeController(SwiftCodeService service,
+                               SwiftCodeVersions versions,
+                               SwiftCodeResponseCache responseCache,
+                               @Value("${swiftcodes.country.default-page-size:100}") int defaultPageSize,
+                               @Value("${swiftcodes.cache.precomputed-details:true}") boolean precomputedDetails,
+                               @Value("${swiftcodes.cache.max-age:60s}") Duration maxAge) {
         this.service = service;
+        this.versions = versions;
+        this.responseCache = responseCache;
+        this.defaultPageSize = defaultPageSize;
+        this.precomputedDetails = precomputedDetails;
+        // Shared caches may keep a copy but must revalidate it with If-None-Match once it is older than max-age.
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
     }
 
     @Operation(
@@ -27,11 +62,27 @@ public class SwiftCodeController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "SWIFT code details"),
+            @ApiResponse(responseCode = "304", description = "SWIFT code unchanged since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "SWIFT code not found")
     })
     @GetMapping("/{swiftCode}")
-    public ResponseEntity<?> getSwiftCodeDetails(@Parameter(description = "The SWIFT code to retrieve details for") @PathVariable String swiftCode) {
-        return ResponseEntity.ok(service.getSwiftCodeDetails(swiftCode));
+    public ResponseEntity<?> getSwiftCodeDetails(@Parameter(description = "The SWIFT code to retrieve details for") @PathVariable String swiftCode,
+                                                 WebRequest request) throws Exception {
+        if (!precomputedDetails) {
+            String tag = versions.codeTag(swiftCode);
+            if (request.checkNotModified(tag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(tag).cacheControl(cacheControl).body(service.getSwiftCodeDetails(swiftCode));
+        }
+
+        String version = versions.codeTag(swiftCode);
+        String tag = representationTag(version, request);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        SwiftCodeResponseCache.Body body = responseCache.detail(swiftCode, version, () -> service.getSwiftCodeDetails(swiftCode));
+        return encoded(ResponseEntity.ok().eTag(tag).cacheControl(cacheControl), body, request);
     }
 
     @Operation(
@@ -40,11 +91,134 @@ public class SwiftCodeController {
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of SWIFT codes for the country"),
+            @ApiResponse(responseCode = "304", description = "Country listing unchanged since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "No SWIFT codes found for the country")
     })
     @GetMapping("/country/{countryISO2}")
-    public ResponseEntity<?> getSwiftCodesByCountry(@Parameter(description = "The ISO2 country code to retrieve SWIFT codes") @PathVariable String countryISO2) {
-        return ResponseEntity.ok(service.getSwiftCodesByCountry(countryISO2));
+    public ResponseEntity<?> getSwiftCodesByCountry(
+            @Parameter(description = "The ISO2 country code to retrieve SWIFT codes") @PathVariable String countryISO2,
+            @Parameter(description = "Maximum number of SWIFT codes to return; enables cursor pagination") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String after,
+            WebRequest request) throws Exception {
+        if (limit == null && after == null) {
+            String country = countryISO2.toUpperCase(Locale.ROOT);
+            String version = versions.countryTag(country);
+            String tag = representationTag(version, request);
+            if (request.checkNotModified(tag)) {
+                return null;
+            }
+            SwiftCodeResponseCache.Body body = responseCache.country(country, version, () -> service.getSwiftCodesByCountry(country));
+            return encoded(ResponseEntity.ok().eTag(tag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT), body, request);
+        }
+        return ResponseEntity.ok(service.getSwiftCodesByCountryPage(countryISO2, limit != null ? limit : defaultPageSize, after));
+    }
+
+    @Operation(
+            summary = "Stream SWIFT codes by country",
+            description = "Streams all SWIFT codes of a country as newline-delimited JSON, one code per line."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of SWIFT codes for the country"),
+            @ApiResponse(responseCode = "404", description = "No SWIFT codes found for the country")
+    })
+    @GetMapping(value = "/country/{countryISO2}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamSwiftCodesByCountry(
+            @Parameter(description = "The ISO2 country code to retrieve SWIFT codes") @PathVariable String countryISO2) {
+        service.requireCountry(countryISO2);
+        StreamingResponseBody body = out -> service.streamSwiftCodesByCountry(countryISO2, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    @Operation(
+            summary = "Look up many SWIFT codes",
+            description = "Resolves a list of SWIFT codes in one request. Every requested code gets a result entry; codes that do not exist are reported with found=false."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-code lookup results, in request order"),
+            @ApiResponse(responseCode = "400", description = "Too many SWIFT codes in one request, or a null code")
+    })
+    @PostMapping("/_lookup")
+    public ResponseEntity<StreamingResponseBody> lookupSwiftCodes(@RequestBody List<String> swiftCodes) {
+        service.checkLookup(swiftCodes);
+        StreamingResponseBody body = out -> service.lookupSwiftCodes(swiftCodes, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(
+            summary = "Search SWIFT codes",
+            description = "Finds SWIFT codes by code prefix or by words of the bank name, optionally tolerating typos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching SWIFT codes, code prefix matches first"),
+            @ApiResponse(responseCode = "400", description = "Invalid query, field, fuzzy or limit")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<?> searchSwiftCodes(
+            @Parameter(description = "Code prefix or bank name words; the last word may be incomplete") @RequestParam String q,
+            @Parameter(description = "Where to search: code, bank or all") @RequestParam(defaultValue = "all") String field,
+            @Parameter(description = "Maximum number of typos per code or word, 0 to 2") @RequestParam(defaultValue = "0") int fuzzy,
+            @Parameter(description = "Maximum number of results") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(service.searchSwiftCodes(q, field, fuzzy, limit));
+    }
+
+    @Operation(
+            summary = "Get directory statistics",
+            description = "Returns the number of SWIFT codes, headquarters, branches, distinct banks and branches without a headquarter, for the whole directory and per country."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Directory totals and per-country counts, ordered by country code")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        return ResponseEntity.ok(service.getStats());
+    }
+
+    @Operation(
+            summary = "Get country statistics",
+            description = "Returns the number of SWIFT codes, headquarters, branches, distinct banks and branches without a headquarter in one country."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counts for the country"),
+            @ApiResponse(responseCode = "404", description = "No SWIFT codes found for the country")
+    })
+    @GetMapping("/stats/{countryISO2}")
+    public ResponseEntity<?> getCountryStats(
+            @Parameter(description = "The ISO2 country code to count SWIFT codes for") @PathVariable String countryISO2) {
+        return ResponseEntity.ok(service.getCountryStats(countryISO2));
+    }
+
+    @Operation(
+            summary = "Import an updated SWIFT directory",
+            description = "Applies a new directory file incrementally: codes missing from the database are inserted, changed codes updated and codes absent from the file deleted. Returns the change counts and duration. " +
+                    "A file that would delete a large share of the directory is refused unless allowMassDelete is set."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Delta applied"),
+            @ApiResponse(responseCode = "409", description = "Another import is already running"),
+            @ApiResponse(responseCode = "422", description = "The file has no codes or would delete more than the allowed share of the directory; nothing was written")
+    })
+    @PostMapping(value = "/_import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importDirectory(@Parameter(description = "SWIFT directory spreadsheet (.xlsx)") @RequestParam MultipartFile file,
+                                             @Parameter(description = "Apply the file even if it deletes more than swiftcodes.import.max-delete-fraction of the directory") @RequestParam(defaultValue = "false") boolean allowMassDelete) {
+        return ResponseEntity.ok(service.importDirectory(file.getResource(), allowMassDelete));
+    }
+
+    @Operation(
+            summary = "Add and delete SWIFT codes in bulk",
+            description = "Applies a list of insert and delete operations in one transaction and reports a result per item. " +
+                    "In all-or-nothing mode nothing is written if any operation fails; in best-effort mode the valid operations are applied."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operations applied; results in request order"),
+            @ApiResponse(responseCode = "400", description = "Unknown mode or too many operations"),
+            @ApiResponse(responseCode = "422", description = "An all-or-nothing request had failed operations; nothing was written")
+    })
+    @PostMapping("/_bulk")
+    public ResponseEntity<?> bulkWrite(
+            @RequestBody List<SwiftCodeBulkWriter.Operation> operations,
+            @Parameter(description = "all-or-nothing or best-effort") @RequestParam(defaultValue = "all-or-nothing") String mode) {
+        SwiftCodeBulkWriter.BulkResult result = service.bulkWrite(operations, mode);
+        return ResponseEntity.status(result.applied() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
     }
 
     @Operation(
@@ -76,4 +250,23 @@ public class SwiftCodeController {
             @RequestParam String countryISO2) {
         return ResponseEntity.ok(service.deleteSwiftCode(swiftCode, bankName, countryISO2));
     }
+
+    // Gzip and identity bodies are different representations, so they must not share a strong tag.
+    private static String representationTag(String version, WebRequest request) {
+        return acceptsGzip(request) ? version + "-gzip" : version;
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static ResponseEntity<byte[]> encoded(ResponseEntity.BodyBuilder response, SwiftCodeResponseCache.Body body,
+                                                  WebRequest request) {
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING).contentType(MediaType.APPLICATION_JSON);
+        if (body.gzip() != null && acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.identity());
+    }
 }
@@ -1,53 +1,162 @@
 package com.example.swiftcodes.initializer;
 
+import com.example.swiftcodes.config.ReplicaRoutingDataSource;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.lookup.SwiftCodeSnapshotFile;
+import com.example.swiftcodes.lookup.SwiftCodeSnapshotStore;
 import com.example.swiftcodes.models.SwiftCode;
 import com.example.swiftcodes.models.SwiftCodeParser;
 import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
 
+    private static final String RESOURCE_PATH = "data/Interns_2025_SWIFT_CODES.xlsx";
+
     private final SwiftCodeRepository repository;
+    private final SwiftCodeBulkLoader bulkLoader;
+    private final SwiftCodeDeltaImporter deltaImporter;
+    private final SwiftCodeIngestion ingestion;
+    private final SwiftCodeLookup lookup;
+    private final SwiftCodeSnapshotStore snapshotStore;
+    private final ResourcePatternResolver resourceResolver;
+    private final DataLoadHealthIndicator loadHealth;
+    private final boolean async;
+    private final boolean streaming;
+    private final String mode;
+    private final String[] sources;
 
-    public DataInitializer(SwiftCodeRepository repository) {
+    public DataInitializer(SwiftCodeRepository repository,
+                           SwiftCodeBulkLoader bulkLoader,
+                           SwiftCodeDeltaImporter deltaImporter,
+                           SwiftCodeIngestion ingestion,
+                           SwiftCodeLookup lookup,
+                           SwiftCodeSnapshotStore snapshotStore,
+                           ResourcePatternResolver resourceResolver,
+                           DataLoadHealthIndicator loadHealth,
+                           @Value("${swiftcodes.startup.async-load:false}") boolean async,
+                           @Value("${swiftcodes.import.streaming:true}") boolean streaming,
+                           @Value("${swiftcodes.import.mode:full}") String mode,
+                           @Value("${swiftcodes.import.sources:}") String[] sources) {
         this.repository = repository;
+        this.bulkLoader = bulkLoader;
+        this.deltaImporter = deltaImporter;
+        this.ingestion = ingestion;
+        this.lookup = lookup;
+        this.snapshotStore = snapshotStore;
+        this.resourceResolver = resourceResolver;
+        this.loadHealth = loadHealth;
+        this.async = async;
+        this.streaming = streaming;
+        this.mode = mode;
+        this.sources = Arrays.stream(sources).map(String::trim).filter(source -> !source.isEmpty()).toArray(String[]::new);
     }
 
     @Override
     public void run(String... args) throws Exception {
-        if (repository.count() > 0) {
-            System.out.println("SWIFT codes already exist in the database. Initialization skipped.");
+        if (!async) {
+            load();
             return;
         }
 
-        String resourcePath = "data/Interns_2025_SWIFT_CODES.xlsx";
-        SwiftCodeParser parser = new SwiftCodeParser();
-
-        List<SwiftCode> swiftCodes = parser.parseExcelFile(resourcePath);
+        // The server is already accepting connections; readiness holds traffic back until the load is done.
+        loadHealth.loading();
+        Thread.ofPlatform().name("swiftcodes-data-load").start(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                load();
+                if (lookup.isEnabled()) {
+                    lookup.snapshot();
+                }
+                loadHealth.loaded(System.currentTimeMillis() - start);
+                System.out.printf("SWIFT directory ready after %,d ms in the background.%n", System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                System.out.println("Loading the SWIFT directory failed; the application will not report ready: " + e.getMessage());
+                loadHealth.failed(e);
+            }
+        });
+    }
 
-        Map<String, SwiftCode> headquarterMap = swiftCodes.stream()
-                .filter(SwiftCode::isHeadquarter)
-                .collect(Collectors.toMap(
-                        code -> code.getSwiftCode().substring(0, 8),
-                        code -> code
-                ));
+    private void load() throws Exception {
+        List<Resource> resources = resources();
+        long sourceFingerprint = SwiftCodeSnapshotStore.sourceFingerprint(resources);
 
-        swiftCodes.forEach(code -> {
-            if (!code.isHeadquarter()) {
-                String hqCodePrefix = code.getSwiftCode().substring(0, 8);
-                if (headquarterMap.containsKey(hqCodePrefix)) {
-                    code.setRelatedHeadquarter(headquarterMap.get(hqCodePrefix));
+        // The decision is about the primary's table; a replica may lag behind or still be empty.
+        if (ReplicaRoutingDataSource.onPrimary(repository::count) > 0) {
+            if ("delta".equals(mode)) {
+                // A bundled or configured file that would empty the table is refused; the current rows keep being served.
+                try {
+                    deltaImporter.apply(rowSource(resources), sourceFingerprint, false);
+                } catch (ResponseStatusException e) {
+                    System.out.println("SWIFT directory delta not applied: " + e.getReason());
                 }
+                return;
             }
-        });
+            System.out.println("SWIFT codes already exist in the database. Initialization skipped.");
+            if (!snapshotStore.restoreLookup()) {
+                snapshotStore.save(sourceFingerprint);
+            }
+            return;
+        }
+
+        // A snapshot written from the same source files refills the table without parsing Excel again.
+        Optional<SwiftCodeSnapshotFile.Contents> stored = snapshotStore.read()
+                .filter(contents -> contents.sourceFingerprint() == sourceFingerprint);
+        if (stored.isPresent()) {
+            bulkLoader.load(sink -> stored.get().snapshot().all().forEach(view -> sink.accept(new SwiftCode(
+                    view.swiftCode(), view.bankName(), view.address(), view.countryISO2(), view.countryName(),
+                    view.isHeadquarter(), null))));
+            lookup.install(stored.get().snapshot());
+        } else {
+            bulkLoader.load(rowSource(resources));
+            lookup.invalidate();
+        }
+        snapshotStore.save(sourceFingerprint);
 
-        repository.saveAll(swiftCodes);
         System.out.println("SWIFT codes successfully initialized with branch-headquarter relationships.");
     }
+
+    private List<Resource> resources() throws Exception {
+        if (sources.length == 0) {
+            return List.of(new ClassPathResource(RESOURCE_PATH));
+        }
+        List<Resource> resources = new ArrayList<>();
+        for (String source : sources) {
+            resources.addAll(Arrays.asList(resourceResolver.getResources(source)));
+        }
+        return resources;
+    }
+
+    private SwiftCodeBulkLoader.RowSource rowSource(List<Resource> resources) throws Exception {
+        if (sources.length > 0) {
+            return ingestion.ingest(resources);
+        }
+
+        SwiftCodeParser parser = new SwiftCodeParser();
+        Resource resource = resources.get(0);
+        return sink -> {
+            if (streaming) {
+                parser.streamExcelFile(resource, sink);
+            } else {
+                try (InputStream is = resource.getInputStream()) {
+                    for (SwiftCode code : parser.parseExcelFile(is)) {
+                        sink.accept(code);
+                    }
+                }
+            }
+        };
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.swiftcodes.initializer;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * State of the startup directory load, part of the readiness group: with the load running in the
+ * background, /actuator/health/readiness stays OUT_OF_SERVICE until the directory can be served,
+ * and DOWN if the load failed, while liveness is already UP.
+ */
+@Component
+public class DataLoadHealthIndicator implements HealthIndicator {
+
+    private volatile Health health = Health.up().build();
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    void loading() {
+        health = Health.outOfService().withDetail("directory", "loading").build();
+    }
+
+    void loaded(long elapsedMillis) {
+        health = Health.up().withDetail("loadMillis", elapsedMillis).build();
+    }
+
+    void failed(Exception e) {
+        health = Health.down(e).build();
+    }
+}
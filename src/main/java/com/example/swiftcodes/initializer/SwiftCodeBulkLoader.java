@@ -0,0 +1,216 @@
+package com.example.swiftcodes.initializer;
+
+import com.example.swiftcodes.models.SwiftCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Component
+public class SwiftCodeBulkLoader {
+
+    static final String INSERT_SQL = "INSERT INTO swift_code " +
+            "(swift_code, bank_name, address, countryiso2, is_headquarter) VALUES (?, ?, ?, ?, ?)";
+
+    // The directory file is authoritative for country names, so an existing name is overwritten.
+    private static final String UPSERT_COUNTRY_SQL = "INSERT INTO country (iso2, name) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name)";
+
+    // MySQL cannot update a table that a subquery of the same statement reads, but can join it to itself.
+    private static final String LINK_BRANCHES_JOIN_SQL = "UPDATE swift_code b JOIN swift_code h " +
+            "ON h.is_headquarter = true AND LEFT(b.swift_code, 8) = LEFT(h.swift_code, 8) " +
+            "SET b.related_headquarter_id = h.id WHERE b.is_headquarter = false";
+
+    // H2, used by the embedded profile, has no multi-table UPDATE and takes the standard MERGE instead. It joins
+    // by nested loops, so the range on swift_code lets each headquarter find its branches through the index.
+    private static final String LINK_BRANCHES_MERGE_SQL = "MERGE INTO swift_code b USING " +
+            "(SELECT LEFT(swift_code, 8) AS prefix, MIN(id) AS id FROM swift_code WHERE is_headquarter = true " +
+            "GROUP BY LEFT(swift_code, 8)) h " +
+            "ON (b.swift_code >= h.prefix AND b.swift_code < CONCAT(h.prefix, '~') " +
+            "AND b.is_headquarter = false AND LEFT(b.swift_code, 8) = h.prefix) " +
+            "WHEN MATCHED THEN UPDATE SET related_headquarter_id = h.id";
+
+    // The derived table with LIMIT is materialized first, which lets MySQL read the table it updates.
+    private static final String LINK_PREFIX_SQL = "UPDATE swift_code SET related_headquarter_id = " +
+            "(SELECT id FROM (SELECT id FROM swift_code WHERE swift_code LIKE ? AND is_headquarter = true LIMIT 1) h) " +
+            "WHERE swift_code LIKE ? AND is_headquarter = false";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long progressInterval;
+    private final AtomicLong importedRows = new AtomicLong();
+    private final AtomicLong rowsPerSecond = new AtomicLong();
+    private final Timer importTimer;
+    private volatile String linkBranchesSql;
+
+    public SwiftCodeBulkLoader(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${swiftcodes.import.batch-size:1000}") int batchSize,
+                               @Value("${swiftcodes.import.progress-interval:100000}") long progressInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+
+        Gauge.builder("swiftcodes.import.rows", importedRows, AtomicLong::get)
+                .description("Rows written by the running or last bulk import").register(meterRegistry);
+        Gauge.builder("swiftcodes.import.throughput", rowsPerSecond, AtomicLong::get)
+                .description("Rows per second of the running or last bulk import").baseUnit("rows/s").register(meterRegistry);
+        this.importTimer = Timer.builder("swiftcodes.import.duration")
+                .description("Duration of bulk imports including headquarter linking").register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface RowSource {
+        void emit(Consumer<SwiftCode> sink) throws Exception;
+    }
+
+    public record ImportResult(long rows, long linkedBranches, long elapsedMillis) {
+    }
+
+    public ImportResult load(RowSource source) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return loadInTransaction(source);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("SWIFT code import failed", e);
+            }
+        });
+    }
+
+    private ImportResult loadInTransaction(RowSource source) throws Exception {
+        long start = System.currentTimeMillis();
+        Chunk chunk = new Chunk(start);
+        importedRows.set(0);
+        rowsPerSecond.set(0);
+
+        source.emit(chunk::add);
+        chunk.flush();
+        long linked = linkBranches();
+
+        long elapsed = System.currentTimeMillis() - start;
+        importTimer.record(elapsed, TimeUnit.MILLISECONDS);
+        rowsPerSecond.set(chunk.total * 1000 / Math.max(1, elapsed));
+        System.out.printf("Imported %,d SWIFT codes (%,d branches linked to their headquarters) in %,d ms.%n",
+                chunk.total, linked, elapsed);
+        return new ImportResult(chunk.total, linked, elapsed);
+    }
+
+    /**
+     * Writes the countries of the given codes that are not in {@code written} yet, or whose name differs
+     * from the one written, so that every code's country exists before the code itself is inserted.
+     */
+    void upsertCountries(Collection<SwiftCode> codes, Map<String, String> written) {
+        Map<String, String> pending = new LinkedHashMap<>();
+        for (SwiftCode code : codes) {
+            if (!code.getCountryName().equals(written.get(code.getCountryISO2()))) {
+                pending.put(code.getCountryISO2(), code.getCountryName());
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_COUNTRY_SQL, pending.entrySet().stream()
+                .map(country -> new Object[]{country.getKey(), country.getValue()}).toList());
+        written.putAll(pending);
+    }
+
+    static void setInsertParameters(PreparedStatement ps, SwiftCode code) throws SQLException {
+        ps.setString(1, code.getSwiftCode());
+        ps.setString(2, code.getBankName());
+        ps.setString(3, code.getAddress());
+        ps.setString(4, code.getCountryISO2());
+        ps.setBoolean(5, code.isHeadquarter());
+    }
+
+    /**
+     * Second pass: one set-based statement links every branch to the headquarter sharing its first
+     * 8 characters, instead of one UPDATE per headquarter or per branch entity. Returns the rows linked.
+     */
+    long linkBranches() {
+        String sql = linkBranchesSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            sql = "MySQL".equalsIgnoreCase(product) ? LINK_BRANCHES_JOIN_SQL : LINK_BRANCHES_MERGE_SQL;
+            linkBranchesSql = sql;
+        }
+        return jdbcTemplate.update(sql);
+    }
+
+    /** Inserts codes whose countries already exist, in JDBC batches of the import batch size. */
+    public void insert(List<SwiftCode> codes) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, codes, batchSize, SwiftCodeBulkLoader::setInsertParameters);
+    }
+
+    /**
+     * Links the branches of the given prefixes to their headquarter with one statement per prefix, sent
+     * in batches. For a few prefixes this is cheaper than {@link #linkBranches}, which joins the whole table.
+     */
+    public void linkPrefixes(Set<String> prefixes) {
+        List<Object[]> args = prefixes.stream().map(prefix -> new Object[]{prefix + "%", prefix + "%"}).toList();
+        for (int from = 0; from < args.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(LINK_PREFIX_SQL, args.subList(from, Math.min(args.size(), from + batchSize)));
+        }
+    }
+
+    private final class Chunk {
+
+        private final List<SwiftCode> rows = new ArrayList<>(batchSize);
+        private final Map<String, String> countries = new HashMap<>();
+        private final long start;
+        private long total;
+        private long nextReport = progressInterval;
+
+        private Chunk(long start) {
+            this.start = start;
+        }
+
+        private void add(SwiftCode code) {
+            rows.add(code);
+            if (rows.size() == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            upsertCountries(rows, countries);
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), SwiftCodeBulkLoader::setInsertParameters);
+            total += rows.size();
+            rows.clear();
+
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            importedRows.set(total);
+            rowsPerSecond.set(total * 1000 / elapsed);
+
+            if (progressInterval > 0 && total >= nextReport) {
+                System.out.printf("Imported %,d SWIFT codes (%,d rows/s)...%n", total, total * 1000 / elapsed);
+                nextReport += progressInterval;
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.swiftcodes.initializer;
+
+import com.example.swiftcodes.lookup.DirectoryChangeFeed;
+import com.example.swiftcodes.lookup.SwiftCodeCodec;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.lookup.SwiftCodeSnapshotStore;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies a new directory file on top of the current table: rows are matched by SWIFT code and
+ * only inserts, updates and deletes are written, in JDBC batches and one transaction. Branch links
+ * are rebuilt only for the 8-character prefixes touched by the change set, and the lookup snapshot
+ * is patched in place, so reads keep being served from the old state until the commit.
+ * <p>
+ * A file that would delete more than max-delete-fraction of the table, or that has no rows at all,
+ * is refused before anything is written unless the caller allows a mass delete: an empty, truncated
+ * or wrong workbook would otherwise wipe the directory in one commit.
+ */
+@Component
+public class SwiftCodeDeltaImporter {
+
+    private static final String SELECT_ALL_SQL = "SELECT s.swift_code, s.bank_name, s.address, s.countryiso2, c.name, s.is_headquarter " +
+            "FROM swift_code s JOIN country c ON c.iso2 = s.countryiso2";
+
+    private static final String UPDATE_SQL = "UPDATE swift_code SET bank_name = ?, address = ?, countryiso2 = ?, " +
+            "is_headquarter = ? WHERE swift_code = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM swift_code WHERE swift_code = ?";
+
+    private static final String UNLINK_PREFIX_SQL = "UPDATE swift_code SET related_headquarter_id = NULL " +
+            "WHERE swift_code LIKE ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SwiftCodeBulkLoader bulkLoader;
+    private final SwiftCodeLookup lookup;
+    private final SwiftCodeSnapshotStore snapshotStore;
+    private final DirectoryChangeFeed changeFeed;
+    private final int batchSize;
+    private final double maxDeleteFraction;
+    private final ReentrantLock running = new ReentrantLock();
+    private final Counter inserted;
+    private final Counter updated;
+    private final Counter deleted;
+    private final Timer importTimer;
+
+    public SwiftCodeDeltaImporter(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  SwiftCodeBulkLoader bulkLoader,
+                                  SwiftCodeLookup lookup,
+                                  SwiftCodeSnapshotStore snapshotStore,
+                                  DirectoryChangeFeed changeFeed,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${swiftcodes.import.batch-size:1000}") int batchSize,
+                                  @Value("${swiftcodes.import.max-delete-fraction:0.1}") double maxDeleteFraction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.bulkLoader = bulkLoader;
+        this.lookup = lookup;
+        this.snapshotStore = snapshotStore;
+        this.changeFeed = changeFeed;
+        this.batchSize = batchSize;
+        this.maxDeleteFraction = maxDeleteFraction;
+        this.inserted = changeCounter(meterRegistry, "inserted");
+        this.updated = changeCounter(meterRegistry, "updated");
+        this.deleted = changeCounter(meterRegistry, "deleted");
+        this.importTimer = Timer.builder("swiftcodes.import.delta.duration")
+                .description("Duration of incremental directory imports").register(meterRegistry);
+    }
+
+    private static Counter changeCounter(MeterRegistry meterRegistry, String change) {
+        return Counter.builder("swiftcodes.import.delta.rows").tag("change", change)
+                .description("Rows changed by incremental directory imports").register(meterRegistry);
+    }
+
+    public record DeltaResult(long inserted, long updated, long deleted, long unchanged,
+                              long relinkedPrefixes, long elapsedMillis) {
+    }
+
+    public DeltaResult apply(SwiftCodeBulkLoader.RowSource source, boolean allowMassDelete) {
+        return apply(source, SwiftCodeSnapshotStore.UNKNOWN_SOURCE, allowMassDelete);
+    }
+
+    public DeltaResult apply(SwiftCodeBulkLoader.RowSource source, long sourceFingerprint, boolean allowMassDelete) {
+        if (!running.tryLock()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A directory import is already running");
+        }
+        try {
+            snapshotStore.discard();
+            DeltaResult result = transactionTemplate.execute(status -> {
+                try {
+                    return applyInTransaction(source, allowMassDelete);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalStateException("SWIFT code delta import failed", e);
+                }
+            });
+            snapshotStore.save(sourceFingerprint);
+            return result;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private DeltaResult applyInTransaction(SwiftCodeBulkLoader.RowSource source, boolean allowMassDelete) throws Exception {
+        long start = System.currentTimeMillis();
+
+        Map<String, SwiftCodeView> current = new HashMap<>();
+        Map<String, String> countries = new HashMap<>();
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            SwiftCodeView row = new SwiftCodeView(rs.getString(1), rs.getString(2), rs.getString(3),
+                    rs.getString(4), rs.getString(5), rs.getBoolean(6), null);
+            current.put(row.swiftCode(), row);
+            countries.put(row.countryISO2(), row.countryName());
+        });
+
+        List<SwiftCode> inserts = new ArrayList<>();
+        List<SwiftCode> written = new ArrayList<>();
+        List<SwiftCodeView> updates = new ArrayList<>();
+        Set<String> seen = new HashSet<>(current.size());
+        Set<String> affectedPrefixes = new HashSet<>();
+        source.emit(code -> {
+            if (!seen.add(code.getSwiftCode())) {
+                return;
+            }
+            SwiftCodeView row = SwiftCodeView.from(code);
+            SwiftCodeView existing = current.get(row.swiftCode());
+            if (existing == null) {
+                inserts.add(code);
+                written.add(code);
+                affectedPrefixes.add(SwiftCodeCodec.prefix(row.swiftCode()));
+            } else if (!existing.equals(row)) {
+                updates.add(row);
+                written.add(code);
+                if (existing.isHeadquarter() != row.isHeadquarter()) {
+                    affectedPrefixes.add(SwiftCodeCodec.prefix(row.swiftCode()));
+                }
+            }
+        });
+        List<String> deletes = current.keySet().stream().filter(code -> !seen.contains(code)).toList();
+        if (!allowMassDelete) {
+            checkDeletes(seen.size(), deletes.size(), current.size());
+        }
+        deletes.forEach(code -> affectedPrefixes.add(SwiftCodeCodec.prefix(code)));
+
+        // Links inside touched prefixes are dropped first, so deleting a headquarter never trips the foreign key.
+        batch(UNLINK_PREFIX_SQL, affectedPrefixes.stream().map(prefix -> new Object[]{prefix + "%"}).toList());
+        batch(DELETE_SQL, deletes.stream().map(code -> new Object[]{code}).toList());
+        // A renamed country shows up as an update of each of its codes; the name itself is written once here.
+        bulkLoader.upsertCountries(written, countries);
+        batch(UPDATE_SQL, updates.stream().map(row -> new Object[]{row.bankName(), row.address(),
+                row.countryISO2(), row.isHeadquarter(), row.swiftCode()}).toList());
+        jdbcTemplate.batchUpdate(SwiftCodeBulkLoader.INSERT_SQL, inserts, batchSize, SwiftCodeBulkLoader::setInsertParameters);
+        // Past one batch of prefixes, a single statement over the whole table is cheaper than one per prefix.
+        if (affectedPrefixes.size() > batchSize) {
+            bulkLoader.linkBranches();
+        } else {
+            bulkLoader.linkPrefixes(affectedPrefixes);
+        }
+
+        Set<String> changedPrefixes = new HashSet<>(affectedPrefixes);
+        updates.forEach(row -> changedPrefixes.add(SwiftCodeCodec.prefix(row.swiftCode())));
+        List<SwiftCodeView> views = linkedViews(current, inserts, updates, deletes, changedPrefixes);
+        // Relinked rows are recorded too: other nodes re-read every code listed, not just the written ones.
+        List<String> changed = new ArrayList<>(views.size() + deletes.size());
+        views.forEach(view -> changed.add(view.swiftCode()));
+        changed.addAll(deletes);
+        changeFeed.record(changed);
+        lookup.applied(views, deletes);
+
+        long elapsed = System.currentTimeMillis() - start;
+        long unchanged = seen.size() - inserts.size() - updates.size();
+        inserted.increment(inserts.size());
+        updated.increment(updates.size());
+        deleted.increment(deletes.size());
+        importTimer.record(elapsed, TimeUnit.MILLISECONDS);
+        System.out.printf("Applied SWIFT directory delta: %,d inserted, %,d updated, %,d deleted, %,d unchanged, %,d prefixes relinked in %,d ms.%n",
+                inserts.size(), updates.size(), deletes.size(), unchanged, affectedPrefixes.size(), elapsed);
+        return new DeltaResult(inserts.size(), updates.size(), deletes.size(), unchanged, affectedPrefixes.size(), elapsed);
+    }
+
+    private void checkDeletes(int rows, int deletes, int existing) {
+        if (existing > 0 && rows == 0) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "The directory file has no SWIFT codes; importing it would delete all " + existing + " codes");
+        }
+        if (deletes > maxDeleteFraction * existing) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, String.format(
+                    "The directory file would delete %,d of %,d SWIFT codes, more than the allowed %.0f%%; " +
+                            "import it with allowMassDelete=true if this is intended", deletes, existing, maxDeleteFraction * 100));
+        }
+    }
+
+    private void batch(String sql, List<Object[]> args) {
+        for (int from = 0; from < args.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, args.subList(from, Math.min(args.size(), from + batchSize)));
+        }
+    }
+
+    // Every row of a changed prefix may have gained or lost its headquarter, so all of them are re-sent to the lookup.
+    private static List<SwiftCodeView> linkedViews(Map<String, SwiftCodeView> current, List<SwiftCode> inserts,
+                                                   List<SwiftCodeView> updates, List<String> deletes,
+                                                   Set<String> prefixes) {
+        Map<String, SwiftCodeView> rows = new HashMap<>();
+        current.forEach((code, row) -> {
+            if (prefixes.contains(SwiftCodeCodec.prefix(code))) {
+                rows.put(code, row);
+            }
+        });
+        deletes.forEach(rows::remove);
+        updates.forEach(row -> rows.put(row.swiftCode(), row));
+        inserts.forEach(code -> rows.put(code.getSwiftCode(), SwiftCodeView.from(code)));
+
+        Map<String, String> headquarters = new HashMap<>();
+        rows.values().stream()
+                .filter(SwiftCodeView::isHeadquarter)
+                .forEach(row -> headquarters.put(SwiftCodeCodec.prefix(row.swiftCode()), row.swiftCode()));
+
+        List<SwiftCodeView> views = new ArrayList<>(rows.size());
+        for (SwiftCodeView row : rows.values()) {
+            String headquarter = row.isHeadquarter() ? null : headquarters.get(SwiftCodeCodec.prefix(row.swiftCode()));
+            views.add(withHeadquarter(row, headquarter));
+        }
+        return views;
+    }
+
+    private static SwiftCodeView withHeadquarter(SwiftCodeView row, String headquarterCode) {
+        return new SwiftCodeView(row.swiftCode(), row.bankName(), row.address(), row.countryISO2(),
+                row.countryName(), row.isHeadquarter(), headquarterCode);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.swiftcodes.initializer;
+
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Reads several directory files at once. Every sheet of every workbook and every CSV file becomes
+ * one task on a fork-join pool bounded by {@code swiftcodes.import.parallelism}; rows are then
+ * normalized with parallel streams on the same pool and merged in source order, dropping codes
+ * already seen in an earlier source.
+ */
+@Component
+public class SwiftCodeIngestion {
+
+    private final int parallelism;
+
+    public SwiftCodeIngestion(@Value("${swiftcodes.import.parallelism:0}") int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public record Result(List<SwiftCode> codes, int files, int parts, long duplicates, long elapsedMillis) implements SwiftCodeBulkLoader.RowSource {
+
+        @Override
+        public void emit(Consumer<SwiftCode> sink) {
+            codes.forEach(sink);
+        }
+    }
+
+    private record Workbook(File file, List<String> sharedStrings, int sheets) {
+    }
+
+    public Result ingest(List<Resource> resources) throws Exception {
+        return ingest(resources, parallelism);
+    }
+
+    public Result ingest(List<Resource> resources, int threads) throws Exception {
+        long start = System.currentTimeMillis();
+        SwiftCodeParser parser = new SwiftCodeParser();
+        List<Path> spooled = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            // Shared strings are per workbook, so they are read once before the sheets fan out.
+            List<Callable<Workbook>> opening = new ArrayList<>();
+            for (Resource resource : resources) {
+                if (!isCsv(resource)) {
+                    File file = resource.isFile() ? resource.getFile() : spool(resource, spooled);
+                    opening.add(() -> new Workbook(file, parser.readSharedStrings(file), parser.countSheets(file)));
+                }
+            }
+            List<Workbook> workbooks = await(pool.invokeAll(opening));
+
+            List<Callable<List<String[]>>> reading = new ArrayList<>();
+            int workbook = 0;
+            for (Resource resource : resources) {
+                if (isCsv(resource)) {
+                    reading.add(() -> collect(rows -> parser.readCsv(resource, rows)));
+                } else {
+                    Workbook current = workbooks.get(workbook++);
+                    for (int sheet = 0; sheet < current.sheets(); sheet++) {
+                        int index = sheet;
+                        reading.add(() -> collect(rows -> parser.readSheet(current.file(), index, current.sharedStrings(), rows)));
+                    }
+                }
+            }
+            List<List<String[]>> parts = await(pool.invokeAll(reading));
+
+            List<SwiftCode> normalized = pool.submit(() -> parts.parallelStream()
+                    .flatMap(List::stream)
+                    .map(SwiftCodeParser::normalize)
+                    .toList()).get();
+
+            Set<String> seen = new HashSet<>(normalized.size());
+            List<SwiftCode> codes = new ArrayList<>(normalized.size());
+            for (SwiftCode code : normalized) {
+                if (seen.add(code.getSwiftCode())) {
+                    codes.add(code);
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.printf("Parsed %,d SWIFT codes from %d files (%d sheets/files) on %d threads in %,d ms.%n",
+                    codes.size(), resources.size(), parts.size(), threads, elapsed);
+            return new Result(codes, resources.size(), parts.size(), normalized.size() - codes.size(), elapsed);
+        } finally {
+            pool.shutdown();
+            for (Path path : spooled) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        void read(Consumer<String[]> rows) throws Exception;
+    }
+
+    private static List<String[]> collect(RowReader reader) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        reader.read(rows::add);
+        return rows;
+    }
+
+    private static <T> List<T> await(List<Future<T>> futures) throws Exception {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        return results;
+    }
+
+    private static boolean isCsv(Resource resource) {
+        String name = resource.getFilename();
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    // OPC packages can only be opened lazily from a file, so classpath jars and uploads are copied out first.
+    private static File spool(Resource resource, List<Path> spooled) throws Exception {
+        Path path = Files.createTempFile("swiftcodes-", ".xlsx");
+        spooled.add(path);
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return path.toFile();
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.swiftcodes.lookup;
+
+import com.example.swiftcodes.config.ReplicaRoutingDataSource;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the lookups of several nodes sharing one database in step. Writers call {@link #record}
+ * inside their transaction: it increments the directory version and adds the written codes to the
+ * outbox, so both commit or roll back with the change itself. Every node polls the outbox for the
+ * versions it has not seen yet, re-reads the codes written by other nodes from the primary and
+ * patches its lookup and entity tags with them. Its own changes were applied after their commit.
+ */
+@Component
+public class DirectoryChangeFeed implements SmartLifecycle {
+
+    private static final String BUMP_VERSION_SQL = "UPDATE directory_version SET version = version + 1 WHERE id = 1";
+
+    private static final String VERSION_SQL = "SELECT version FROM directory_version WHERE id = 1";
+
+    private static final String INSERT_SQL = "INSERT INTO directory_change (version, swift_code, origin, changed_at) VALUES (?, ?, ?, ?)";
+
+    private static final String CHANGES_SQL = "SELECT version, swift_code, origin FROM directory_change WHERE version > ? AND version <= ?";
+
+    private static final String PRUNE_SQL = "DELETE FROM directory_change WHERE changed_at < ?";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_VERSIONS_PER_POLL = 1000;
+    private static final Duration PRUNE_INTERVAL = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SwiftCodeRepository repository;
+    private final SwiftCodeLookup lookup;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final AtomicLong seen = new AtomicLong();
+    private final Counter applied;
+    private final Counter reloads;
+
+    private volatile ScheduledExecutorService poller;
+    private volatile boolean running;
+    private volatile Instant lastPrune = Instant.EPOCH;
+
+    public DirectoryChangeFeed(JdbcTemplate jdbcTemplate,
+                               SwiftCodeRepository repository,
+                               SwiftCodeLookup lookup,
+                               MeterRegistry meterRegistry,
+                               @Value("${swiftcodes.changefeed.enabled:true}") boolean enabled,
+                               @Value("${swiftcodes.changefeed.node-id:}") String nodeId,
+                               @Value("${swiftcodes.changefeed.poll-interval:1s}") Duration pollInterval,
+                               @Value("${swiftcodes.changefeed.retention:1d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = repository;
+        this.lookup = lookup;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+        this.applied = Counter.builder("swiftcodes.changefeed.applied")
+                .description("SWIFT codes changed by other nodes and applied to the lookup").register(meterRegistry);
+        this.reloads = Counter.builder("swiftcodes.changefeed.reloads")
+                .description("Lookup reloads after outbox entries were pruned before this node read them").register(meterRegistry);
+        Gauge.builder("swiftcodes.changefeed.version", seen, AtomicLong::get)
+                .description("Directory version this node has caught up with").register(meterRegistry);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public long seenVersion() {
+        return seen.get();
+    }
+
+    public void record(Collection<String> swiftCodes) {
+        if (swiftCodes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Directory changes must be recorded in the transaction that makes them");
+        }
+
+        // Taken last in the writing transaction: the version row stays locked until the commit.
+        jdbcTemplate.update(BUMP_VERSION_SQL);
+        long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new LinkedHashSet<>(swiftCodes), BATCH_SIZE, (ps, swiftCode) -> {
+            ps.setLong(1, version);
+            ps.setString(2, swiftCode);
+            ps.setString(3, nodeId);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    /** Applies the changes committed by other nodes since the last poll and returns how many codes it re-read. */
+    public int poll() {
+        return ReplicaRoutingDataSource.onPrimary(() -> {
+            long from = seen.get();
+            long to = Math.min(currentVersion(), from + MAX_VERSIONS_PER_POLL);
+            if (to <= from) {
+                return 0;
+            }
+
+            Set<Long> versions = new HashSet<>();
+            Set<String> changed = new HashSet<>();
+            jdbcTemplate.query(CHANGES_SQL, rs -> {
+                versions.add(rs.getLong(1));
+                if (!nodeId.equals(rs.getString(3))) {
+                    changed.add(rs.getString(2));
+                }
+            }, from, to);
+
+            if (versions.size() < to - from) {
+                // Every version has outbox rows until they are pruned; with some gone the changes are unknown.
+                System.out.printf("Directory versions %d to %d were pruned before this node read them; reloading the lookup.%n", from + 1, to);
+                lookup.invalidate();
+                reloads.increment();
+            } else if (!changed.isEmpty()) {
+                apply(changed);
+            }
+            seen.set(to);
+            prune();
+            return changed.size();
+        });
+    }
+
+    private void apply(Set<String> changed) {
+        List<SwiftCodeView> upserts = new ArrayList<>();
+        List<String> codes = new ArrayList<>(changed);
+        for (int from = 0; from < codes.size(); from += BATCH_SIZE) {
+            upserts.addAll(repository.findViewsWithBranchesIn(codes.subList(from, Math.min(codes.size(), from + BATCH_SIZE))));
+        }
+        Set<String> present = new HashSet<>();
+        upserts.forEach(view -> present.add(view.swiftCode()));
+        List<String> removals = codes.stream().filter(code -> !present.contains(code)).toList();
+
+        lookup.replicated(upserts, removals);
+        applied.increment(changed.size());
+    }
+
+    private void prune() {
+        Instant now = Instant.now();
+        if (now.isBefore(lastPrune.plus(PRUNE_INTERVAL))) {
+            return;
+        }
+        lastPrune = now;
+        jdbcTemplate.update(PRUNE_SQL, Timestamp.from(now.minus(retention)));
+    }
+
+    private long currentVersion() {
+        return jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            System.out.println("Directory change poll failed, retrying in " + pollInterval.toMillis() + " ms: " + e.getMessage());
+        }
+    }
+
+    // Started before the web server, so the starting version precedes any snapshot this node serves.
+    @Override
+    public void start() {
+        seen.set(ReplicaRoutingDataSource.onPrimary(this::currentVersion));
+        if (enabled) {
+            poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("directory-change-feed").daemon().factory());
+            poller.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = poller;
+        poller = null;
+        if (current != null) {
+            current.shutdownNow();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.swiftcodes.lookup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Code, headquarter, branch, bank and orphan branch counts per country and for the whole directory,
+ * held by every {@link SwiftCodeSnapshot}. A modified snapshot derives its counts from the previous
+ * one by taking out the records it replaces or deletes and adding their new state, so the directory
+ * is only counted in full when a snapshot is built from scratch.
+ */
+public final class DirectoryStats {
+
+    /** Counts of one country, or of the whole directory with no country code or name. */
+    public record Counts(String countryISO2, String countryName, int swiftCodes, int headquarters, int branches,
+                         int banks, int orphanBranches) {
+    }
+
+    private final Tally total;
+    private final Map<String, Tally> countries;
+
+    private DirectoryStats(Tally total, Map<String, Tally> countries) {
+        this.total = total;
+        this.countries = countries;
+    }
+
+    public Counts total() {
+        return total.counts(null);
+    }
+
+    public List<Counts> countries() {
+        return countries.entrySet().stream().map(country -> country.getValue().counts(country.getKey())).toList();
+    }
+
+    public Optional<Counts> country(String countryISO2) {
+        return Optional.ofNullable(countries.get(countryISO2)).map(tally -> tally.counts(countryISO2));
+    }
+
+    public int countryCount() {
+        return countries.size();
+    }
+
+    // Tallies are shared between consecutive snapshots and only modified by the builder that copied them.
+    private static final class Tally {
+
+        private String countryName;
+        private int codes;
+        private int headquarters;
+        private int orphanBranches;
+        private final Map<String, Integer> banks;
+
+        private Tally(Map<String, Integer> banks) {
+            this.banks = banks;
+        }
+
+        private Tally copy() {
+            Tally copy = new Tally(new HashMap<>(banks));
+            copy.countryName = countryName;
+            copy.codes = codes;
+            copy.headquarters = headquarters;
+            copy.orphanBranches = orphanBranches;
+            return copy;
+        }
+
+        private void count(String countryName, String bankName, boolean headquarter, boolean orphan, int delta) {
+            codes += delta;
+            if (headquarter) {
+                headquarters += delta;
+            }
+            if (orphan) {
+                orphanBranches += delta;
+            }
+            banks.merge(bankName, delta, (current, change) -> current + change == 0 ? null : current + change);
+            if (delta > 0) {
+                this.countryName = countryName;
+            }
+        }
+
+        private Counts counts(String countryISO2) {
+            return new Counts(countryISO2, countryISO2 != null ? countryName : null, codes, headquarters,
+                    codes - headquarters, banks.size(), orphanBranches);
+        }
+    }
+
+    static final class Builder {
+
+        private final Tally total;
+        private final TreeMap<String, Tally> countries;
+        private final Map<String, Tally> copied = new HashMap<>();
+
+        Builder() {
+            this.total = new Tally(new HashMap<>());
+            this.countries = new TreeMap<>();
+        }
+
+        Builder(DirectoryStats stats) {
+            this.total = stats.total.copy();
+            this.countries = new TreeMap<>(stats.countries);
+        }
+
+        void add(String countryISO2, String countryName, String bankName, boolean headquarter, boolean orphan) {
+            count(countryISO2, countryName, bankName, headquarter, orphan, 1);
+        }
+
+        void remove(String countryISO2, String countryName, String bankName, boolean headquarter, boolean orphan) {
+            count(countryISO2, countryName, bankName, headquarter, orphan, -1);
+        }
+
+        private void count(String countryISO2, String countryName, String bankName, boolean headquarter,
+                           boolean orphan, int delta) {
+            total.count(null, bankName, headquarter, orphan, delta);
+            Tally country = copied.get(countryISO2);
+            if (country == null) {
+                Tally shared = countries.get(countryISO2);
+                country = shared != null ? shared.copy() : new Tally(new HashMap<>());
+                copied.put(countryISO2, country);
+                countries.put(countryISO2, country);
+            }
+            country.count(countryName, bankName, headquarter, orphan, delta);
+        }
+
+        DirectoryStats build() {
+            copied.forEach((countryISO2, country) -> {
+                if (country.codes == 0) {
+                    countries.remove(countryISO2);
+                }
+            });
+            return new DirectoryStats(total, countries);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.swiftcodes.lookup;
+
+public enum SearchField {
+    CODE,
+    BANK,
+    ALL
+}
@@ -0,0 +1,109 @@
+package com.example.swiftcodes.lookup;
+
+/**
+ * Packs a SWIFT code of up to 11 characters from [A-Z0-9] into a single {@code long}.
+ * <p>
+ * Each position is a base-37 digit (1-10 for '0'-'9', 11-36 for 'A'-'Z', 0 for "no character"),
+ * most significant first, so 37^11 fits comfortably in 63 bits, packed codes sort like the strings
+ * (and the database's binary collation) and the 8-character headquarter prefix is a plain division.
+ */
+public final class SwiftCodeCodec {
+
+    public static final int MAX_LENGTH = 11;
+    public static final long INVALID = 0L;
+
+    private static final int RADIX = 37;
+    private static final long BRANCH_PART = 37L * 37L * 37L;
+    private static final long HEADQUARTER_SUFFIX = encodeSuffix("XXX");
+    private static final long[] POWERS = new long[MAX_LENGTH + 1];
+
+    static {
+        POWERS[0] = 1;
+        for (int i = 1; i <= MAX_LENGTH; i++) {
+            POWERS[i] = POWERS[i - 1] * RADIX;
+        }
+    }
+
+    private SwiftCodeCodec() {
+    }
+
+    public static boolean isValid(String swiftCode) {
+        return encode(swiftCode) != INVALID;
+    }
+
+    /**
+     * Returns the packed code, or {@link #INVALID} if the code is empty, longer than 11 characters
+     * or contains anything other than upper-case letters and digits.
+     */
+    public static long encode(String swiftCode) {
+        if (swiftCode == null || swiftCode.isEmpty() || swiftCode.length() > MAX_LENGTH) {
+            return INVALID;
+        }
+        long value = 0;
+        for (int i = 0; i < MAX_LENGTH; i++) {
+            int digit = 0;
+            if (i < swiftCode.length()) {
+                digit = digit(swiftCode.charAt(i));
+                if (digit == 0) {
+                    return INVALID;
+                }
+            }
+            value = value * RADIX + digit;
+        }
+        return value;
+    }
+
+    public static String decode(long code) {
+        char[] chars = new char[MAX_LENGTH];
+        int length = 0;
+        for (int i = MAX_LENGTH - 1; i >= 0; i--) {
+            int digit = (int) (code / POWERS[i] % RADIX);
+            if (digit == 0) {
+                break;
+            }
+            chars[length++] = character(digit);
+        }
+        return new String(chars, 0, length);
+    }
+
+    /** The first eight characters, which identify the institution, country and location. */
+    public static long prefix(long code) {
+        return code / BRANCH_PART;
+    }
+
+    /** The same prefix as text, for codes that cannot be packed and for statements that match on it. */
+    public static String prefix(String swiftCode) {
+        return swiftCode.substring(0, Math.min(8, swiftCode.length()));
+    }
+
+    /** The headquarter code ({@code prefix + "XXX"}) that a branch with this code belongs to. */
+    public static long headquarterOf(long code) {
+        return prefix(code) * BRANCH_PART + HEADQUARTER_SUFFIX;
+    }
+
+    public static boolean isHeadquarter(long code) {
+        return code % BRANCH_PART == HEADQUARTER_SUFFIX;
+    }
+
+    private static long encodeSuffix(String suffix) {
+        long value = 0;
+        for (int i = 0; i < suffix.length(); i++) {
+            value = value * RADIX + digit(suffix.charAt(i));
+        }
+        return value;
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 1;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 11;
+        }
+        return 0;
+    }
+
+    private static char character(int digit) {
+        return digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+    }
+}
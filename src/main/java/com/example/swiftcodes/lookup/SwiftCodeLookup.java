@@ -0,0 +1,247 @@
+package com.example.swiftcodes.lookup;
+
+import com.example.swiftcodes.config.ReplicaRoutingDataSource;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+@Component
+public class SwiftCodeLookup {
+
+    private final SwiftCodeRepository repository;
+    private final SwiftCodeVersions versions;
+    private final boolean enabled;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter loads;
+    private final AtomicBoolean indexing = new AtomicBoolean();
+    private final List<Consumer<Collection<String>>> removalListeners = new CopyOnWriteArrayList<>();
+
+    private volatile SwiftCodeSnapshot snapshot;
+
+    public SwiftCodeLookup(SwiftCodeRepository repository,
+                           SwiftCodeVersions versions,
+                           MeterRegistry meterRegistry,
+                           @Value("${swiftcodes.lookup.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        this.versions = versions;
+        this.enabled = enabled;
+        this.hits = Counter.builder("swiftcodes.lookup.requests").tag("result", "hit")
+                .description("Detail lookups answered by the in-memory snapshot").register(meterRegistry);
+        this.misses = Counter.builder("swiftcodes.lookup.requests").tag("result", "miss")
+                .description("Detail lookups for codes absent from the in-memory snapshot").register(meterRegistry);
+        this.loads = Counter.builder("swiftcodes.lookup.loads")
+                .description("Full snapshot loads from the database").register(meterRegistry);
+        Gauge.builder("swiftcodes.lookup.size", this, lookup -> {
+                    SwiftCodeSnapshot current = lookup.snapshot;
+                    return current != null ? current.size() : 0;
+                })
+                .description("SWIFT codes held in the in-memory snapshot").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether reads are answered from memory, rather than first loading the snapshot from the database. */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /** Whether searches are answered from memory, rather than first loading the snapshot or building its index. */
+    public boolean isSearchReady() {
+        SwiftCodeSnapshot current = snapshot;
+        return current != null && current.hasSearchIndex();
+    }
+
+    /** Called with the codes of every committed or replicated delete, including branches removed with their headquarter. */
+    public void onRemoved(Consumer<Collection<String>> listener) {
+        removalListeners.add(listener);
+    }
+
+    public Optional<SwiftCodeView> find(String swiftCode) {
+        Optional<SwiftCodeView> code = snapshot().find(swiftCode);
+        (code.isPresent() ? hits : misses).increment();
+        return code;
+    }
+
+    public List<SwiftCodeView> branchesOf(String headquarterCode) {
+        return snapshot().branchesOf(headquarterCode);
+    }
+
+    public List<SwiftCodeView> search(String query, SearchField field, int maxEdits, int limit) {
+        return snapshot().search(query, field, maxEdits, limit);
+    }
+
+    public DirectoryStats stats() {
+        return snapshot().stats();
+    }
+
+    public SwiftCodeSnapshot snapshot() {
+        SwiftCodeSnapshot current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    public void saved(SwiftCodeView view) {
+        afterCommit(() -> {
+            update(current -> current.with(view));
+            versions.changed(view);
+        });
+    }
+
+    /** A deleted code; removed lists it together with the branches deleted along with it. */
+    public void deleted(String swiftCode, Collection<String> removed) {
+        afterCommit(() -> {
+            // The country of a deleted code is only known from the snapshot; without one every tag is changed.
+            SwiftCodeSnapshot current = snapshot;
+            Optional<SwiftCodeView> view = current != null ? current.find(swiftCode) : Optional.empty();
+            update(loaded -> loaded.without(swiftCode));
+            if (view.isPresent()) {
+                versions.changed(view.get());
+            } else {
+                versions.changedAll();
+            }
+            removed(removed);
+        });
+    }
+
+    public void applied(Collection<SwiftCodeView> upserts, Collection<String> removals) {
+        afterCommit(() -> {
+            update(current -> current.apply(upserts, removals));
+            versions.changedAll();
+            removed(removals);
+        });
+    }
+
+    /** A batch of writes whose tags are changed code by code, unlike {@link #applied}. */
+    public void written(Collection<SwiftCodeView> upserts, Collection<String> removals) {
+        afterCommit(() -> replicated(upserts, removals));
+    }
+
+    /**
+     * Changes committed by another node, as read back by {@link DirectoryChangeFeed}. Tags change for
+     * the old and the new state of every code, since an update may have moved it to another country.
+     */
+    public void replicated(Collection<SwiftCodeView> upserts, Collection<String> removals) {
+        SwiftCodeSnapshot current = snapshot;
+        List<SwiftCodeView> previous = current == null ? List.of()
+                : Stream.concat(upserts.stream().map(SwiftCodeView::swiftCode), removals.stream())
+                        .map(current::find).flatMap(Optional::stream).toList();
+        update(loaded -> loaded.apply(upserts, removals));
+        previous.forEach(versions::changed);
+        upserts.forEach(versions::changed);
+        if (current == null && !removals.isEmpty()) {
+            versions.changedAll();
+        }
+        removed(removals);
+    }
+
+    private void removed(Collection<String> swiftCodes) {
+        if (!swiftCodes.isEmpty()) {
+            removalListeners.forEach(listener -> listener.accept(swiftCodes));
+        }
+    }
+
+    public void install(SwiftCodeSnapshot restored) {
+        lock.lock();
+        try {
+            snapshot = restored;
+        } finally {
+            lock.unlock();
+        }
+        versions.changedAll();
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+        versions.changedAll();
+    }
+
+    // A lock rather than synchronized: loading blocks on JDBC, which would pin a virtual thread's carrier.
+    // The snapshot lives until the next write, so it is read from the primary even with a replica configured.
+    private SwiftCodeSnapshot load() {
+        lock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = SwiftCodeSnapshot.of(ReplicaRoutingDataSource.onPrimary(repository::findAllViews));
+                loads.increment();
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(UnaryOperator<SwiftCodeSnapshot> change) {
+        SwiftCodeSnapshot updated = null;
+        boolean searched = false;
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                searched = snapshot.hasSearchIndex();
+                updated = change.apply(snapshot);
+                snapshot = updated;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // A modified snapshot derives its search index from the previous one; a full rebuild, when one is
+        // due or the records were renumbered, runs in the background so neither writers nor searches wait.
+        if (searched && (!updated.hasSearchIndex() || updated.isSearchIndexRebuildDue())) {
+            rebuildSearchIndex();
+        }
+    }
+
+    // Rebuilds for whichever snapshot is current when the thread runs, so bursts of writes share one rebuild.
+    private void rebuildSearchIndex() {
+        if (!indexing.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform().name("search-index").daemon().start(() -> {
+            indexing.set(false);
+            SwiftCodeSnapshot current = snapshot;
+            if (current != null && (!current.hasSearchIndex() || current.isSearchIndexRebuildDue())) {
+                current.rebuildSearchIndex();
+            }
+        });
+    }
+
+    // Applied even when detail lookups are disabled: search always reads the snapshot once loaded.
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.swiftcodes.lookup;
+
+import com.example.swiftcodes.models.SwiftCodeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix and typo-tolerant search over one {@link SwiftCodeSnapshot}. Codes go into one trie and
+ * the distinct words of bank names into another, so a query walks a few trie nodes instead of
+ * scanning the directory. A snapshot modified in place (record numbers kept) derives its index from
+ * the previous one: the tries are shared, the records written since they were built are left out of
+ * their results and matched by a scan instead. Once more than {@link #MAX_PENDING} records are
+ * scanned that way the index is due for a full rebuild, which {@link SwiftCodeLookup} runs in the
+ * background while the derived index keeps answering.
+ */
+final class SwiftCodeSearchIndex {
+
+    static final int MAX_PENDING = 1024;
+
+    private final SwiftCodeSnapshot snapshot;
+    private final Trie codes;
+    private final Trie bankWords;
+    private final int bankNameCount;
+    private final int[] bankStart;
+    private final int[] bankRecords;
+    private final BitSet stale;
+    private final int[] pending;
+
+    SwiftCodeSearchIndex(SwiftCodeSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.stale = new BitSet();
+        this.pending = new int[0];
+
+        List<Integer> live = new ArrayList<>(snapshot.size());
+        for (int record = 0; record < snapshot.recordCount(); record++) {
+            if (snapshot.isLive(record)) {
+                live.add(record);
+            }
+        }
+
+        String[] recordCodes = new String[snapshot.recordCount()];
+        live.forEach(record -> recordCodes[record] = snapshot.code(record));
+        live.sort(Comparator.comparing(record -> recordCodes[record]));
+        List<String> codeKeys = new ArrayList<>(live.size());
+        List<int[]> codePostings = new ArrayList<>(live.size());
+        for (int record : live) {
+            codeKeys.add(recordCodes[record]);
+            codePostings.add(new int[]{record});
+        }
+        this.codes = Trie.build(codeKeys, codePostings);
+
+        // Records grouped by bank name id, in compressed-sparse-row form.
+        this.bankNameCount = snapshot.stringCount();
+        int[] start = new int[bankNameCount + 1];
+        for (int record : live) {
+            start[snapshot.bankNameId(record) + 1]++;
+        }
+        for (int i = 0; i < bankNameCount; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] records = new int[start[bankNameCount]];
+        int[] next = Arrays.copyOf(start, bankNameCount);
+        for (int record = 0; record < snapshot.recordCount(); record++) {
+            if (snapshot.isLive(record)) {
+                records[next[snapshot.bankNameId(record)]++] = record;
+            }
+        }
+        this.bankStart = start;
+        this.bankRecords = records;
+
+        Map<String, BitSet> words = new TreeMap<>();
+        for (int bankName = 0; bankName < bankNameCount; bankName++) {
+            if (start[bankName] != start[bankName + 1]) {
+                for (String word : words(snapshot.string(bankName))) {
+                    words.computeIfAbsent(word, key -> new BitSet()).set(bankName);
+                }
+            }
+        }
+        this.bankWords = Trie.build(new ArrayList<>(words.keySet()),
+                words.values().stream().map(bankNames -> bankNames.stream().toArray()).toList());
+    }
+
+    private SwiftCodeSearchIndex(SwiftCodeSearchIndex base, SwiftCodeSnapshot snapshot, BitSet stale, int[] pending) {
+        this.snapshot = snapshot;
+        this.codes = base.codes;
+        this.bankWords = base.bankWords;
+        this.bankNameCount = base.bankNameCount;
+        this.bankStart = base.bankStart;
+        this.bankRecords = base.bankRecords;
+        this.stale = stale;
+        this.pending = pending;
+    }
+
+    /** The index of a snapshot that differs from this one's only in the touched records. */
+    SwiftCodeSearchIndex derive(SwiftCodeSnapshot next, BitSet touched) {
+        BitSet changed = (BitSet) stale.clone();
+        changed.or(touched);
+        return new SwiftCodeSearchIndex(this, next, changed, changed.stream().filter(next::isLive).toArray());
+    }
+
+    boolean isRebuildDue() {
+        return stale.cardinality() > MAX_PENDING;
+    }
+
+    List<SwiftCodeView> search(String query, SearchField field, int maxEdits, int limit) {
+        String normalized = query.trim().toUpperCase(Locale.ROOT);
+        Set<Integer> matches = new LinkedHashSet<>();
+        if (field != SearchField.BANK) {
+            searchCodes(normalized.replace(" ", ""), maxEdits, limit, matches);
+        }
+        if (field != SearchField.CODE && matches.size() < limit) {
+            searchBankNames(normalized, maxEdits, limit, matches);
+        }
+        return matches.stream().map(snapshot::view).toList();
+    }
+
+    private void searchCodes(String prefix, int maxEdits, int limit, Set<Integer> matches) {
+        if (prefix.isEmpty()) {
+            return;
+        }
+        List<Integer> found = new ArrayList<>();
+        int node = codes.find(prefix);
+        if (node >= 0) {
+            codes.collect(node, record -> {
+                if (!stale.get(record)) {
+                    found.add(record);
+                }
+                return found.size() < limit;
+            });
+        }
+        // Trie results come in code order; pending records are merged into it.
+        for (int record : pending) {
+            if (snapshot.code(record).startsWith(prefix)) {
+                found.add(record);
+            }
+        }
+        if (pending.length > 0) {
+            found.sort(Comparator.comparing(snapshot::code));
+        }
+        for (int record : found) {
+            if (matches.size() == limit) {
+                break;
+            }
+            matches.add(record);
+        }
+
+        // Typos are matched against code prefixes, so short terms get fewer of them, as bank name words do.
+        int edits = Math.min(maxEdits, allowedEdits(prefix));
+        if (edits > 0 && matches.size() < limit) {
+            List<int[]> similar = new ArrayList<>();
+            codes.fuzzy(prefix, edits, true, (postings, distance) -> {
+                if (!stale.get(postings[0])) {
+                    similar.add(new int[]{distance, postings[0]});
+                }
+            });
+            for (int record : pending) {
+                int distance = Trie.distance(prefix, snapshot.code(record), true);
+                if (distance <= edits) {
+                    similar.add(new int[]{distance, record});
+                }
+            }
+            Comparator<int[]> byDistance = Comparator.comparingInt(match -> match[0]);
+            similar.sort(pending.length > 0 ? byDistance.thenComparing(match -> snapshot.code(match[1])) : byDistance);
+            for (int[] match : similar) {
+                if (matches.size() == limit) {
+                    break;
+                }
+                matches.add(match[1]);
+            }
+        }
+    }
+
+    private void searchBankNames(String query, int maxEdits, int limit, Set<Integer> matches) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return;
+        }
+
+        // Every word must match; the last one may still be half typed, so it also matches as a prefix.
+        BitSet bankNames = null;
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            BitSet candidates = new BitSet(bankNameCount);
+            if (i == words.size() - 1) {
+                int node = bankWords.find(word);
+                if (node >= 0) {
+                    bankWords.collectAll(node, candidates::set);
+                }
+            } else {
+                int[] exact = bankWords.exact(word);
+                if (exact != null) {
+                    Arrays.stream(exact).forEach(candidates::set);
+                }
+            }
+            int edits = Math.min(maxEdits, allowedEdits(word));
+            boolean last = i == words.size() - 1;
+            if (edits > 0) {
+                bankWords.fuzzy(word, edits, last, (postings, distance) -> Arrays.stream(postings).forEach(candidates::set));
+            }
+            for (int record : pending) {
+                int bankName = snapshot.bankNameId(record);
+                if (!candidates.get(bankName) && matchesWord(snapshot.string(bankName), word, last, edits)) {
+                    candidates.set(bankName);
+                }
+            }
+
+            if (bankNames == null) {
+                bankNames = candidates;
+            } else {
+                bankNames.and(candidates);
+            }
+            if (bankNames.isEmpty()) {
+                return;
+            }
+        }
+
+        for (int bankName = bankNames.nextSetBit(0); bankName >= 0; bankName = bankNames.nextSetBit(bankName + 1)) {
+            List<Integer> records = new ArrayList<>();
+            if (bankName < bankNameCount) {
+                for (int i = bankStart[bankName]; i < bankStart[bankName + 1]; i++) {
+                    if (!stale.get(bankRecords[i])) {
+                        records.add(bankRecords[i]);
+                    }
+                }
+            }
+            boolean merged = false;
+            for (int record : pending) {
+                if (snapshot.bankNameId(record) == bankName) {
+                    records.add(record);
+                    merged = true;
+                }
+            }
+            if (merged) {
+                records.sort(Comparator.naturalOrder());
+            }
+            for (int record : records) {
+                if (matches.size() == limit) {
+                    return;
+                }
+                matches.add(record);
+            }
+        }
+    }
+
+    // The trie lookups of searchBankNames applied to one bank name.
+    private static boolean matchesWord(String bankName, String word, boolean last, int edits) {
+        for (String candidate : words(bankName)) {
+            if (last ? candidate.startsWith(word) : candidate.equals(word)) {
+                return true;
+            }
+            if (edits > 0 && Trie.distance(word, candidate, last) <= edits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Short words tolerate fewer typos, otherwise "BNP" would match half the directory.
+    private static int allowedEdits(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 6 ? 1 : 2;
+    }
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toUpperCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,488 @@
+package com.example.swiftcodes.lookup;
+
+import com.example.swiftcodes.models.SwiftCodeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the SWIFT directory. Every modification returns a new snapshot,
+ * so readers never observe a partially applied write.
+ * <p>
+ * Records are stored column-wise in primitive arrays: codes packed by {@link SwiftCodeCodec}
+ * and indexed by a {@link LongIntHashMap}, bank and country names deduplicated through a
+ * string table, and headquarter-to-branch adjacency held as offsets into a single int array.
+ * Codes that cannot be packed (lower case, punctuation, longer than 11 characters) are kept
+ * in a small side table. {@link DirectoryStats} are carried over from the previous snapshot and
+ * adjusted for the records a modification touches.
+ */
+public final class SwiftCodeSnapshot {
+
+    private static final byte HEADQUARTER = 1;
+    private static final byte DELETED = 2;
+    private static final int NONE = -1;
+
+    private static final SwiftCodeSnapshot EMPTY = new Builder(0).build();
+
+    private final int count;
+    private final int deleted;
+    private final long[] codes;
+    private final int[] bankNames;
+    private final String[] addresses;
+    private final int[] countryCodes;
+    private final int[] countryNames;
+    private final byte[] flags;
+    private final int[] headquarters;
+    private final String[] strings;
+    private final Map<String, Integer> stringIds;
+    private final LongIntHashMap index;
+    private final Map<String, Integer> irregularIndex;
+    private final Map<Integer, String> irregularCodes;
+    private final int[] branchStart;
+    private final int[] branchRecords;
+    private final DirectoryStats stats;
+
+    private volatile SwiftCodeSearchIndex searchIndex;
+
+    private SwiftCodeSnapshot(Builder builder) {
+        this.count = builder.count;
+        this.deleted = builder.deleted;
+        this.codes = builder.codes;
+        this.bankNames = builder.bankNames;
+        this.addresses = builder.addresses;
+        this.countryCodes = builder.countryCodes;
+        this.countryNames = builder.countryNames;
+        this.flags = builder.flags;
+        this.headquarters = builder.headquarters;
+        this.strings = builder.strings.toArray(String[]::new);
+        this.stringIds = builder.stringIds;
+        this.index = builder.index;
+        this.irregularIndex = builder.irregularIndex;
+        this.irregularCodes = builder.irregularCodes;
+
+        // Branch adjacency in compressed-sparse-row form: branches of record i are
+        // branchRecords[branchStart[i] .. branchStart[i + 1]).
+        int[] start = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            if (isLive(i) && headquarters[i] != NONE) {
+                start[headquarters[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] records = new int[start[count]];
+        int[] next = Arrays.copyOf(start, count);
+        for (int i = 0; i < count; i++) {
+            if (isLive(i) && headquarters[i] != NONE) {
+                records[next[headquarters[i]]++] = i;
+            }
+        }
+        this.branchStart = start;
+        this.branchRecords = records;
+        this.stats = builder.stats;
+        SwiftCodeSearchIndex previous = builder.previous != null ? builder.previous.searchIndex : null;
+        this.searchIndex = previous != null ? previous.derive(this, builder.touched) : null;
+    }
+
+    public static SwiftCodeSnapshot empty() {
+        return EMPTY;
+    }
+
+    /** Rebuilds a snapshot from columns read back by {@link SwiftCodeSnapshotFile}; all records are live. */
+    static SwiftCodeSnapshot restore(List<String> strings, long[] codes, String[] irregularCodes, int[] bankNames,
+                                     String[] addresses, int[] countryCodes, int[] countryNames, boolean[] headquarter,
+                                     int[] headquarters) {
+        Builder builder = new Builder(codes.length);
+        builder.count = codes.length;
+        strings.forEach(builder::intern);
+        for (int record = 0; record < codes.length; record++) {
+            builder.codes[record] = codes[record];
+            if (codes[record] != SwiftCodeCodec.INVALID) {
+                builder.index.put(codes[record], record);
+            } else {
+                builder.irregularIndex.put(irregularCodes[record], record);
+                builder.irregularCodes.put(record, irregularCodes[record]);
+            }
+            builder.flags[record] = headquarter[record] ? HEADQUARTER : 0;
+        }
+        builder.bankNames = bankNames;
+        builder.addresses = addresses;
+        builder.countryCodes = countryCodes;
+        builder.countryNames = countryNames;
+        builder.headquarters = headquarters;
+        return builder.build();
+    }
+
+    public static SwiftCodeSnapshot of(Collection<SwiftCodeView> views) {
+        Builder builder = new Builder(views.size());
+        views.forEach(builder::set);
+        return builder.build();
+    }
+
+    public Optional<SwiftCodeView> find(String swiftCode) {
+        int record = indexOf(swiftCode);
+        return record == NONE ? Optional.empty() : Optional.of(view(record));
+    }
+
+    public List<SwiftCodeView> branchesOf(String headquarterCode) {
+        int record = indexOf(headquarterCode);
+        if (record == NONE || branchStart[record] == branchStart[record + 1]) {
+            return List.of();
+        }
+        List<SwiftCodeView> branches = new ArrayList<>(branchStart[record + 1] - branchStart[record]);
+        for (int i = branchStart[record]; i < branchStart[record + 1]; i++) {
+            branches.add(view(branchRecords[i]));
+        }
+        return branches;
+    }
+
+    public Collection<SwiftCodeView> all() {
+        List<SwiftCodeView> views = new ArrayList<>(size());
+        for (int i = 0; i < count; i++) {
+            if (isLive(i)) {
+                views.add(view(i));
+            }
+        }
+        return views;
+    }
+
+    public int size() {
+        return count - deleted;
+    }
+
+    public DirectoryStats stats() {
+        return stats;
+    }
+
+    public List<SwiftCodeView> search(String query, SearchField field, int maxEdits, int limit) {
+        return searchIndex().search(query, field, maxEdits, limit);
+    }
+
+    boolean hasSearchIndex() {
+        return searchIndex != null;
+    }
+
+    boolean isSearchIndexRebuildDue() {
+        SwiftCodeSearchIndex current = searchIndex;
+        return current != null && current.isRebuildDue();
+    }
+
+    void rebuildSearchIndex() {
+        searchIndex = new SwiftCodeSearchIndex(this);
+    }
+
+    // Racing readers may both build the index; either copy is equivalent, so no lock is taken.
+    SwiftCodeSearchIndex searchIndex() {
+        SwiftCodeSearchIndex current = searchIndex;
+        if (current == null) {
+            current = new SwiftCodeSearchIndex(this);
+            searchIndex = current;
+        }
+        return current;
+    }
+
+    public SwiftCodeSnapshot with(SwiftCodeView view) {
+        Builder builder = new Builder(this, 1);
+        builder.set(view);
+        return builder.build();
+    }
+
+    public SwiftCodeSnapshot without(String swiftCode) {
+        int record = indexOf(swiftCode);
+        if (record == NONE) {
+            return this;
+        }
+
+        Builder builder = new Builder(this, 0);
+        builder.delete(record);
+        for (int i = branchStart[record]; i < branchStart[record + 1]; i++) {
+            builder.delete(branchRecords[i]);
+        }
+        if (builder.deleted * 4 > builder.count) {
+            return of(builder.build().all());
+        }
+        return builder.build();
+    }
+
+    /** Applies a whole change set in one copy; unlike {@link #without}, removals do not cascade to branches. */
+    public SwiftCodeSnapshot apply(Collection<SwiftCodeView> upserts, Collection<String> removals) {
+        Builder builder = new Builder(this, upserts.size());
+        for (String swiftCode : removals) {
+            int record = indexOf(swiftCode);
+            if (record != NONE) {
+                builder.delete(record);
+            }
+        }
+        upserts.forEach(builder::set);
+        if (builder.deleted * 4 > builder.count) {
+            return of(builder.build().all());
+        }
+        return builder.build();
+    }
+
+    private int indexOf(String swiftCode) {
+        long packed = SwiftCodeCodec.encode(swiftCode);
+        if (packed != SwiftCodeCodec.INVALID) {
+            return index.get(packed);
+        }
+        return irregularIndex.getOrDefault(swiftCode, NONE);
+    }
+
+    int recordCount() {
+        return count;
+    }
+
+    int stringCount() {
+        return strings.length;
+    }
+
+    String string(int id) {
+        return strings[id];
+    }
+
+    int bankNameId(int record) {
+        return bankNames[record];
+    }
+
+    int countryCodeId(int record) {
+        return countryCodes[record];
+    }
+
+    int countryNameId(int record) {
+        return countryNames[record];
+    }
+
+    long packedCode(int record) {
+        return codes[record];
+    }
+
+    String address(int record) {
+        return addresses[record];
+    }
+
+    boolean isHeadquarterRecord(int record) {
+        return (flags[record] & HEADQUARTER) != 0;
+    }
+
+    int headquarterRecord(int record) {
+        return headquarters[record];
+    }
+
+    boolean isLive(int record) {
+        return (flags[record] & DELETED) == 0;
+    }
+
+    String code(int record) {
+        return codes[record] != SwiftCodeCodec.INVALID ? SwiftCodeCodec.decode(codes[record]) : irregularCodes.get(record);
+    }
+
+    SwiftCodeView view(int record) {
+        int headquarter = headquarters[record];
+        return new SwiftCodeView(
+                code(record),
+                strings[bankNames[record]],
+                addresses[record],
+                strings[countryCodes[record]],
+                strings[countryNames[record]],
+                (flags[record] & HEADQUARTER) != 0,
+                headquarter != NONE ? code(headquarter) : null
+        );
+    }
+
+    private static final class Builder {
+
+        private int count;
+        private int deleted;
+        private long[] codes;
+        private int[] bankNames;
+        private String[] addresses;
+        private int[] countryCodes;
+        private int[] countryNames;
+        private byte[] flags;
+        private int[] headquarters;
+        private final List<String> strings;
+        private final Map<String, Integer> stringIds;
+        private final LongIntHashMap index;
+        private final Map<String, Integer> irregularIndex;
+        private final Map<Integer, String> irregularCodes;
+        private final Map<Integer, String> pendingHeadquarters = new HashMap<>();
+        private final DirectoryStats.Builder statsBuilder;
+        private final boolean incremental;
+        private final SwiftCodeSnapshot previous;
+        private final int previousCount;
+        private final BitSet touched = new BitSet();
+        private DirectoryStats stats;
+
+        private Builder(int capacity) {
+            codes = new long[capacity];
+            bankNames = new int[capacity];
+            addresses = new String[capacity];
+            countryCodes = new int[capacity];
+            countryNames = new int[capacity];
+            flags = new byte[capacity];
+            headquarters = new int[capacity];
+            strings = new ArrayList<>();
+            stringIds = new HashMap<>();
+            index = new LongIntHashMap(capacity);
+            irregularIndex = new HashMap<>();
+            irregularCodes = new HashMap<>();
+            statsBuilder = new DirectoryStats.Builder();
+            incremental = false;
+            previous = null;
+            previousCount = 0;
+        }
+
+        private Builder(SwiftCodeSnapshot snapshot, int extra) {
+            count = snapshot.count;
+            deleted = snapshot.deleted;
+            int capacity = count + extra;
+            codes = Arrays.copyOf(snapshot.codes, capacity);
+            bankNames = Arrays.copyOf(snapshot.bankNames, capacity);
+            addresses = Arrays.copyOf(snapshot.addresses, capacity);
+            countryCodes = Arrays.copyOf(snapshot.countryCodes, capacity);
+            countryNames = Arrays.copyOf(snapshot.countryNames, capacity);
+            flags = Arrays.copyOf(snapshot.flags, capacity);
+            headquarters = Arrays.copyOf(snapshot.headquarters, capacity);
+            strings = new ArrayList<>(Arrays.asList(snapshot.strings));
+            stringIds = new HashMap<>(snapshot.stringIds);
+            index = snapshot.index.copy();
+            irregularIndex = new HashMap<>(snapshot.irregularIndex);
+            irregularCodes = new HashMap<>(snapshot.irregularCodes);
+            statsBuilder = new DirectoryStats.Builder(snapshot.stats);
+            incremental = true;
+            previous = snapshot;
+            previousCount = snapshot.count;
+        }
+
+        private void set(SwiftCodeView view) {
+            long packed = SwiftCodeCodec.encode(view.swiftCode());
+            int record = packed != SwiftCodeCodec.INVALID
+                    ? index.get(packed)
+                    : irregularIndex.getOrDefault(view.swiftCode(), NONE);
+            if (record == NONE) {
+                record = append();
+                if (packed != SwiftCodeCodec.INVALID) {
+                    index.put(packed, record);
+                } else {
+                    irregularIndex.put(view.swiftCode(), record);
+                    irregularCodes.put(record, view.swiftCode());
+                }
+            }
+
+            touch(record);
+            codes[record] = packed;
+            bankNames[record] = intern(view.bankName());
+            addresses[record] = view.address();
+            countryCodes[record] = intern(view.countryISO2());
+            countryNames[record] = intern(view.countryName());
+            flags[record] = view.isHeadquarter() ? HEADQUARTER : 0;
+            headquarters[record] = NONE;
+            if (view.headquarterCode() != null) {
+                pendingHeadquarters.put(record, view.headquarterCode());
+            }
+        }
+
+        private void delete(int record) {
+            if ((flags[record] & DELETED) != 0) {
+                return;
+            }
+            touch(record);
+            flags[record] |= DELETED;
+            deleted++;
+            if (codes[record] != SwiftCodeCodec.INVALID) {
+                index.remove(codes[record]);
+            } else {
+                irregularIndex.remove(irregularCodes.remove(record));
+            }
+        }
+
+        // The first change to a record that was live in the previous snapshot takes it out of the counts.
+        private void touch(int record) {
+            if (!incremental || touched.get(record)) {
+                return;
+            }
+            touched.set(record);
+            if (record < previousCount && (flags[record] & DELETED) == 0) {
+                count(record, false);
+            }
+        }
+
+        private void count(int record, boolean add) {
+            String countryCode = strings.get(countryCodes[record]);
+            String countryName = strings.get(countryNames[record]);
+            String bankName = strings.get(bankNames[record]);
+            boolean headquarter = (flags[record] & HEADQUARTER) != 0;
+            boolean orphan = !headquarter && headquarters[record] == NONE;
+            if (add) {
+                statsBuilder.add(countryCode, countryName, bankName, headquarter, orphan);
+            } else {
+                statsBuilder.remove(countryCode, countryName, bankName, headquarter, orphan);
+            }
+        }
+
+        private int append() {
+            if (count == codes.length) {
+                int capacity = Math.max(16, count + (count >> 1));
+                codes = Arrays.copyOf(codes, capacity);
+                bankNames = Arrays.copyOf(bankNames, capacity);
+                addresses = Arrays.copyOf(addresses, capacity);
+                countryCodes = Arrays.copyOf(countryCodes, capacity);
+                countryNames = Arrays.copyOf(countryNames, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+                headquarters = Arrays.copyOf(headquarters, capacity);
+            }
+            return count++;
+        }
+
+        private int intern(String value) {
+            Integer id = stringIds.get(value);
+            if (id == null) {
+                id = strings.size();
+                strings.add(value);
+                stringIds.put(value, id);
+            }
+            return id;
+        }
+
+        private SwiftCodeSnapshot build() {
+            pendingHeadquarters.forEach((record, headquarterCode) -> {
+                long packed = SwiftCodeCodec.encode(headquarterCode);
+                headquarters[record] = packed != SwiftCodeCodec.INVALID
+                        ? index.get(packed)
+                        : irregularIndex.getOrDefault(headquarterCode, NONE);
+            });
+            // Touched records are added back with their headquarters resolved; a new snapshot counts every record.
+            if (incremental) {
+                for (int record = touched.nextSetBit(0); record >= 0; record = touched.nextSetBit(record + 1)) {
+                    if ((flags[record] & DELETED) == 0) {
+                        count(record, true);
+                    }
+                }
+            } else {
+                for (int record = 0; record < count; record++) {
+                    if ((flags[record] & DELETED) == 0) {
+                        count(record, true);
+                    }
+                }
+            }
+            stats = statsBuilder.build();
+            if (codes.length != count) {
+                codes = Arrays.copyOf(codes, count);
+                bankNames = Arrays.copyOf(bankNames, count);
+                addresses = Arrays.copyOf(addresses, count);
+                countryCodes = Arrays.copyOf(countryCodes, count);
+                countryNames = Arrays.copyOf(countryNames, count);
+                flags = Arrays.copyOf(flags, count);
+                headquarters = Arrays.copyOf(headquarters, count);
+            }
+            return new SwiftCodeSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.swiftcodes.lookup;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary image of a {@link SwiftCodeSnapshot}, read back through a memory-mapped channel.
+ * <pre>
+ * header (64 bytes, big-endian)
+ *   magic "SWIFTSNP", version, record count, name count, text count,
+ *   source fingerprint, database fingerprint, directory version, body length, CRC32 of the body
+ * body
+ *   dictionary: name count + text count entries of (int byte length or -1 for null, UTF-8 bytes);
+ *               bank and country names first, then addresses and codes that cannot be packed
+ *   records:    record count entries of 36 bytes:
+ *               packed code (long), irregular code text id, bank name id, country code id,
+ *               country name id, address text id, headquarter record (ints), flags (byte), 3 bytes padding
+ * </pre>
+ * Deleted records are dropped on write, so record numbers in the file are dense.
+ */
+public final class SwiftCodeSnapshotFile {
+
+    static final int VERSION = 3;
+
+    private static final long MAGIC = 0x5357494654534E50L;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 36;
+    private static final int NONE = -1;
+
+    public record Contents(SwiftCodeSnapshot snapshot, long sourceFingerprint, long databaseFingerprint,
+                           long directoryVersion) {
+    }
+
+    private SwiftCodeSnapshotFile() {
+    }
+
+    /** Writes to a sibling temporary file and moves it into place, so readers never see a partial file. */
+    public static void write(SwiftCodeSnapshot snapshot, Path path, long sourceFingerprint, long databaseFingerprint,
+                             long directoryVersion) throws IOException {
+        int[] fileRecord = new int[snapshot.recordCount()];
+        int records = 0;
+        for (int record = 0; record < snapshot.recordCount(); record++) {
+            fileRecord[record] = snapshot.isLive(record) ? records++ : NONE;
+        }
+
+        List<String> texts = new ArrayList<>();
+        int names = snapshot.stringCount();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            long bodyLength;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_SIZE);
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+
+                int[] addressIds = new int[records];
+                int[] codeIds = new int[records];
+                for (int record = 0; record < snapshot.recordCount(); record++) {
+                    if (fileRecord[record] == NONE) {
+                        continue;
+                    }
+                    addressIds[fileRecord[record]] = names + texts.size();
+                    texts.add(snapshot.address(record));
+                    codeIds[fileRecord[record]] = NONE;
+                    if (snapshot.packedCode(record) == SwiftCodeCodec.INVALID) {
+                        codeIds[fileRecord[record]] = names + texts.size();
+                        texts.add(snapshot.code(record));
+                    }
+                }
+
+                for (int i = 0; i < names; i++) {
+                    writeString(out, snapshot.string(i));
+                }
+                for (String text : texts) {
+                    writeString(out, text);
+                }
+                for (int record = 0; record < snapshot.recordCount(); record++) {
+                    int target = fileRecord[record];
+                    if (target == NONE) {
+                        continue;
+                    }
+                    int headquarter = snapshot.headquarterRecord(record);
+                    out.writeLong(snapshot.packedCode(record));
+                    out.writeInt(codeIds[target]);
+                    out.writeInt(snapshot.bankNameId(record));
+                    out.writeInt(snapshot.countryCodeId(record));
+                    out.writeInt(snapshot.countryNameId(record));
+                    out.writeInt(addressIds[target]);
+                    out.writeInt(headquarter != NONE ? fileRecord[headquarter] : NONE);
+                    out.writeByte(snapshot.isHeadquarterRecord(record) ? 1 : 0);
+                    out.write(new byte[3]);
+                }
+                out.flush();
+                bodyLength = channel.position() - HEADER_SIZE;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putLong(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(records)
+                        .putInt(names)
+                        .putInt(texts.size())
+                        .putLong(sourceFingerprint)
+                        .putLong(databaseFingerprint)
+                        .putLong(directoryVersion)
+                        .putLong(bodyLength)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /** Returns nothing when the file is missing, from another format version, truncated or fails its checksum. */
+    public static Optional<Contents> read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return rejected(path, "truncated header");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getLong() != MAGIC) {
+                return rejected(path, "not a snapshot file");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                return rejected(path, "format version " + version + ", expected " + VERSION);
+            }
+            int records = buffer.getInt();
+            int names = buffer.getInt();
+            int texts = buffer.getInt();
+            long sourceFingerprint = buffer.getLong();
+            long databaseFingerprint = buffer.getLong();
+            long directoryVersion = buffer.getLong();
+            long bodyLength = buffer.getLong();
+            int checksum = buffer.getInt();
+            if (bodyLength != size - HEADER_SIZE || records < 0 || names < 0 || texts < 0) {
+                return rejected(path, "inconsistent header");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_SIZE, (int) bodyLength));
+            if ((int) crc.getValue() != checksum) {
+                return rejected(path, "checksum mismatch");
+            }
+
+            buffer.position(HEADER_SIZE);
+            List<String> strings = new ArrayList<>(names);
+            for (int i = 0; i < names; i++) {
+                strings.add(readString(buffer));
+            }
+            String[] text = new String[texts];
+            for (int i = 0; i < texts; i++) {
+                text[i] = readString(buffer);
+            }
+            if (buffer.remaining() != (long) records * RECORD_SIZE) {
+                return rejected(path, "record section has the wrong length");
+            }
+
+            long[] codes = new long[records];
+            String[] irregularCodes = new String[records];
+            int[] bankNames = new int[records];
+            int[] countryCodes = new int[records];
+            int[] countryNames = new int[records];
+            String[] addresses = new String[records];
+            int[] headquarters = new int[records];
+            boolean[] headquarter = new boolean[records];
+            for (int record = 0; record < records; record++) {
+                codes[record] = buffer.getLong();
+                int codeId = buffer.getInt();
+                irregularCodes[record] = codeId != NONE ? text[codeId - names] : null;
+                bankNames[record] = buffer.getInt();
+                countryCodes[record] = buffer.getInt();
+                countryNames[record] = buffer.getInt();
+                addresses[record] = text[buffer.getInt() - names];
+                headquarters[record] = buffer.getInt();
+                headquarter[record] = buffer.get() != 0;
+                buffer.position(buffer.position() + 3);
+            }
+
+            SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.restore(strings, codes, irregularCodes, bankNames, addresses,
+                    countryCodes, countryNames, headquarter, headquarters);
+            return Optional.of(new Contents(snapshot, sourceFingerprint, databaseFingerprint, directoryVersion));
+        } catch (RuntimeException e) {
+            // Out-of-range ids or lengths in a file that passed its checksum; treat it like any other corrupt file.
+            return rejected(path, e.toString());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Optional<Contents> rejected(Path path, String reason) {
+        System.out.printf("Ignoring lookup snapshot %s: %s.%n", path, reason);
+        return Optional.empty();
+    }
+}
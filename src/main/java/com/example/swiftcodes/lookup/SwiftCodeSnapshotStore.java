@@ -0,0 +1,128 @@
+package com.example.swiftcodes.lookup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps the lookup snapshot on disk between restarts. Each file records two fingerprints: one of the
+ * import sources it was built from, so an empty database can be refilled without parsing Excel, and
+ * one of the table it mirrors (row count and highest id), so a populated database can skip the
+ * full reload. It also records the directory version, which every recorded write increments, so
+ * updates that keep the row count and highest id, including those of other nodes, make it stale too.
+ * A file whose fingerprint or version does not match is ignored.
+ */
+@Component
+public class SwiftCodeSnapshotStore {
+
+    public static final long UNKNOWN_SOURCE = 0;
+
+    private static final String FINGERPRINT_SQL = "SELECT COUNT(*), COALESCE(MAX(id), 0) FROM swift_code";
+
+    private static final String DIRECTORY_VERSION_SQL = "SELECT version FROM directory_version WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SwiftCodeLookup lookup;
+    private final Path path;
+
+    public SwiftCodeSnapshotStore(JdbcTemplate jdbcTemplate,
+                                  SwiftCodeLookup lookup,
+                                  @Value("${swiftcodes.snapshot.path:}") String path) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lookup = lookup;
+        this.path = path.isBlank() ? null : Path.of(path);
+    }
+
+    public Optional<SwiftCodeSnapshotFile.Contents> read() {
+        if (path == null) {
+            return Optional.empty();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Optional<SwiftCodeSnapshotFile.Contents> contents = SwiftCodeSnapshotFile.read(path);
+            contents.ifPresent(found -> System.out.printf("Read lookup snapshot of %,d SWIFT codes from %s in %,d ms.%n",
+                    found.snapshot().size(), path, System.currentTimeMillis() - start));
+            return contents;
+        } catch (IOException e) {
+            System.out.printf("Could not read lookup snapshot %s: %s%n", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Installs the stored snapshot into the lookup if it mirrors the current table. */
+    public boolean restoreLookup() {
+        Optional<SwiftCodeSnapshotFile.Contents> contents = read();
+        if (contents.isEmpty()) {
+            return false;
+        }
+        if (contents.get().databaseFingerprint() != databaseFingerprint()
+                || contents.get().directoryVersion() != directoryVersion()) {
+            System.out.println("Lookup snapshot is stale; it will be rebuilt from the database.");
+            return false;
+        }
+        lookup.install(contents.get().snapshot());
+        return true;
+    }
+
+    /** Writes the current lookup snapshot; call after the import that produced it has committed. */
+    public void save(long sourceFingerprint) {
+        if (path == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            // Read before the snapshot: a write committed in between makes the file look stale, never current.
+            long databaseFingerprint = databaseFingerprint();
+            long directoryVersion = directoryVersion();
+            SwiftCodeSnapshot snapshot = lookup.snapshot();
+            SwiftCodeSnapshotFile.write(snapshot, path, sourceFingerprint, databaseFingerprint, directoryVersion);
+            System.out.printf("Wrote lookup snapshot of %,d SWIFT codes to %s in %,d ms.%n",
+                    snapshot.size(), path, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            System.out.printf("Could not write lookup snapshot %s: %s%n", path, e.getMessage());
+        }
+    }
+
+    /** Removes the file before the table changes, so a crash mid-import cannot leave a matching but outdated file. */
+    public void discard() {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.out.printf("Could not delete lookup snapshot %s: %s%n", path, e.getMessage());
+        }
+    }
+
+    public long databaseFingerprint() {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(FINGERPRINT_SQL,
+                (rs, rowNum) -> rs.getLong(1) << 32 ^ rs.getLong(2)));
+    }
+
+    public long directoryVersion() {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(DIRECTORY_VERSION_SQL, Long.class));
+    }
+
+    public static long sourceFingerprint(List<Resource> resources) {
+        long fingerprint = SwiftCodeSnapshotFile.VERSION;
+        try {
+            for (Resource resource : resources) {
+                fingerprint = fingerprint * 31 + Objects.hashCode(resource.getFilename());
+                fingerprint = fingerprint * 31 + resource.contentLength();
+                fingerprint = fingerprint * 31 + resource.lastModified();
+            }
+        } catch (IOException e) {
+            return UNKNOWN_SOURCE;
+        }
+        return fingerprint == UNKNOWN_SOURCE ? 1 : fingerprint;
+    }
+}
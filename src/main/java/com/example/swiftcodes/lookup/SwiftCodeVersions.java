@@ -0,0 +1,57 @@
+package com.example.swiftcodes.lookup;
+
+import com.example.swiftcodes.models.SwiftCodeView;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content versions behind the HTTP entity tags. A code's detail body depends only on the codes
+ * sharing its 8-character prefix (the code itself and, for a headquarter, its branches), so versions
+ * are kept per prefix and per country. Bulk changes bump the epoch instead, which changes every tag
+ * at once. {@link SwiftCodeLookup} bumps versions from its after-commit hooks.
+ */
+@Component
+public class SwiftCodeVersions {
+
+    private final AtomicLong epoch = new AtomicLong(System.currentTimeMillis());
+    private final Map<Long, Long> prefixes = new ConcurrentHashMap<>();
+    private final Map<String, Long> countries = new ConcurrentHashMap<>();
+
+    public String codeTag(String swiftCode) {
+        return "code-" + epoch.get() + "-" + prefixes.getOrDefault(prefix(swiftCode), 0L);
+    }
+
+    public String countryTag(String countryISO2) {
+        return "country-" + epoch.get() + "-" + countries.getOrDefault(countryISO2.toUpperCase(Locale.ROOT), 0L);
+    }
+
+    void changed(SwiftCodeView view) {
+        prefixes.merge(prefix(view.swiftCode()), 1L, Long::sum);
+        if (view.headquarterCode() != null) {
+            prefixes.merge(prefix(view.headquarterCode()), 1L, Long::sum);
+        }
+        if (view.countryISO2() != null) {
+            countries.merge(view.countryISO2().toUpperCase(Locale.ROOT), 1L, Long::sum);
+        }
+    }
+
+    void changedAll() {
+        prefixes.clear();
+        countries.clear();
+        epoch.incrementAndGet();
+    }
+
+    // Packed prefixes are never negative. Codes that cannot be packed are keyed by the hash of their prefix
+    // below them; a collision only changes more tags than necessary.
+    private static long prefix(String swiftCode) {
+        long packed = SwiftCodeCodec.encode(swiftCode);
+        if (packed != SwiftCodeCodec.INVALID) {
+            return SwiftCodeCodec.prefix(packed);
+        }
+        return Long.MIN_VALUE | SwiftCodeCodec.prefix(swiftCode).hashCode() & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.swiftcodes.lookup;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable character trie over a sorted list of distinct keys, laid out in flat arrays.
+ * Each key carries a posting list of int ids. Children of a node occupy a contiguous,
+ * character-ordered range, so lookups binary-search them and no per-node objects exist.
+ */
+final class Trie {
+
+    interface FuzzyMatch {
+        void accept(int[] postings, int distance);
+    }
+
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] childEnd;
+    private final int[] terminal;
+    private final int[][] postings;
+
+    private Trie(char[] labels, int[] childStart, int[] childEnd, int[] terminal, int[][] postings) {
+        this.labels = labels;
+        this.childStart = childStart;
+        this.childEnd = childEnd;
+        this.terminal = terminal;
+        this.postings = postings;
+    }
+
+    /** Builds the trie from keys in ascending order, with postings.get(i) belonging to keys.get(i). */
+    static Trie build(List<String> keys, List<int[]> postings) {
+        IntArray labelsOut = new IntArray();
+        IntArray startOut = new IntArray();
+        IntArray endOut = new IntArray();
+        IntArray terminalOut = new IntArray();
+
+        // Breadth-first: each queue entry is a node and the range of keys sharing its prefix.
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        labelsOut.add(0);
+        startOut.add(0);
+        endOut.add(0);
+        terminalOut.add(-1);
+        queue.add(new int[]{0, 0, keys.size(), 0});
+
+        int nodes = 1;
+        while (!queue.isEmpty()) {
+            int[] entry = queue.poll();
+            int node = entry[0];
+            int from = entry[1];
+            int to = entry[2];
+            int depth = entry[3];
+
+            if (from < to && keys.get(from).length() == depth) {
+                terminalOut.set(node, from);
+                from++;
+            }
+            startOut.set(node, nodes);
+            int i = from;
+            while (i < to) {
+                char c = keys.get(i).charAt(depth);
+                int j = i + 1;
+                while (j < to && keys.get(j).charAt(depth) == c) {
+                    j++;
+                }
+                labelsOut.add(c);
+                startOut.add(0);
+                endOut.add(0);
+                terminalOut.add(-1);
+                queue.add(new int[]{nodes, i, j, depth + 1});
+                nodes++;
+                i = j;
+            }
+            endOut.set(node, nodes);
+        }
+
+        char[] labels = new char[nodes];
+        for (int n = 0; n < nodes; n++) {
+            labels[n] = (char) labelsOut.get(n);
+        }
+        return new Trie(labels, startOut.toArray(), endOut.toArray(), terminalOut.toArray(), postings.toArray(int[][]::new));
+    }
+
+    /** Returns the node reached by the prefix, or -1. */
+    int find(String prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length() && node >= 0; i++) {
+            node = child(node, prefix.charAt(i));
+        }
+        return node;
+    }
+
+    int[] exact(String key) {
+        int node = find(key);
+        return node >= 0 && terminal[node] >= 0 ? postings[terminal[node]] : null;
+    }
+
+    /** Visits postings of every key below the node in key order until the visitor returns false. */
+    void collect(int node, IntPredicateVisitor visitor) {
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (terminal[current] >= 0) {
+                for (int id : postings[terminal[current]]) {
+                    if (!visitor.visit(id)) {
+                        return;
+                    }
+                }
+            }
+            for (int child = childEnd[current] - 1; child >= childStart[current]; child--) {
+                stack.push(child);
+            }
+        }
+    }
+
+    void collectAll(int node, IntConsumer consumer) {
+        collect(node, id -> {
+            consumer.accept(id);
+            return true;
+        });
+    }
+
+    /**
+     * Reports every key within maxEdits Levenshtein edits of the term. With prefix set, a key also matches
+     * when one of its prefixes does, at the distance of its closest prefix, so a half-typed term with a
+     * typo still finds the keys it would complete to.
+     */
+    void fuzzy(String term, int maxEdits, boolean prefix, FuzzyMatch match) {
+        int[] row = new int[term.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        int matched = prefix ? term.length() : Integer.MAX_VALUE;
+        for (int child = childStart[0]; child < childEnd[0]; child++) {
+            fuzzy(child, term, row, maxEdits, prefix, matched, match);
+        }
+    }
+
+    private void fuzzy(int node, String term, int[] previous, int maxEdits, boolean prefix, int matched, FuzzyMatch match) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int best = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int substitution = previous[j - 1] + (term.charAt(j - 1) == labels[node] ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(row[j - 1] + 1, previous[j] + 1));
+            best = Math.min(best, row[j]);
+        }
+        int distance = prefix ? Math.min(row[row.length - 1], matched) : row[row.length - 1];
+        if (prefix) {
+            // The term is consumed and no longer key can come closer, so the whole subtree matches.
+            if (distance <= maxEdits && best >= distance) {
+                terminals(node, terminal -> match.accept(postings[terminal], distance));
+                return;
+            }
+        }
+        if (terminal[node] >= 0 && distance <= maxEdits) {
+            match.accept(postings[terminal[node]], distance);
+        }
+        if (best <= maxEdits) {
+            for (int child = childStart[node]; child < childEnd[node]; child++) {
+                fuzzy(child, term, row, maxEdits, prefix, distance, match);
+            }
+        }
+    }
+
+    private void terminals(int node, IntConsumer consumer) {
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (terminal[current] >= 0) {
+                consumer.accept(terminal[current]);
+            }
+            for (int child = childEnd[current] - 1; child >= childStart[current]; child--) {
+                stack.push(child);
+            }
+        }
+    }
+
+    /** The distance {@link #fuzzy} compares with maxEdits, for keys that are not in the trie. */
+    static int distance(String term, String key, boolean prefix) {
+        int[] row = new int[term.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        int closest = row[row.length - 1];
+        for (int i = 0; i < key.length(); i++) {
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            for (int j = 1; j < row.length; j++) {
+                int substitution = row[j - 1] + (term.charAt(j - 1) == key.charAt(i) ? 0 : 1);
+                next[j] = Math.min(substitution, Math.min(next[j - 1] + 1, row[j] + 1));
+            }
+            row = next;
+            closest = Math.min(closest, row[row.length - 1]);
+        }
+        return prefix ? closest : row[row.length - 1];
+    }
+
+    private int child(int node, char c) {
+        int low = childStart[node];
+        int high = childEnd[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    interface IntPredicateVisitor {
+        boolean visit(int id);
+    }
+
+    private static final class IntArray {
+
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
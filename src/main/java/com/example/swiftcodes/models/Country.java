@@ -0,0 +1,23 @@
+package com.example.swiftcodes.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Data
+@NoArgsConstructor
+public class Country {
+
+    @Id
+    @Column(columnDefinition = "char(2)")
+    private String iso2;
+
+    @Column(nullable = false)
+    private String name;
+
+    public Country(String iso2, String name) {
+        this.iso2 = iso2;
+        this.name = name;
+    }
+}
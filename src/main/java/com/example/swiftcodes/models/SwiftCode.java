@@ -3,6 +3,7 @@ package com.example.swiftcodes.models;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Formula;
 
 @Entity
 @Data
@@ -13,7 +14,7 @@ public class SwiftCode {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false, unique = true, columnDefinition = "char(11)")
     private String swiftCode;
 
     @Column(nullable = false)
@@ -22,15 +23,16 @@ public class SwiftCode {
     @Column(nullable = false)
     private String address;
 
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "char(2)")
     private String countryISO2;
 
-    @Column(nullable = false)
+    // Stored once per country in the country table; set on writes and read back through the country code.
+    @Formula("(select c.name from country c where c.iso2 = countryiso2)")
     private String countryName;
 
     private boolean isHeadquarter;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "related_headquarter_id")
     private SwiftCode relatedHeadquarter;
 
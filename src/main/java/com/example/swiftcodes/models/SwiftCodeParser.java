@@ -1,20 +1,43 @@
 package com.example.swiftcodes.models;
 
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class SwiftCodeParser {
 
+    private static final int COLUMN_COUNT = 6;
+
     public List<SwiftCode> parseExcelFile(String resourcePath) throws Exception {
+        try (InputStream is = new ClassPathResource(resourcePath).getInputStream()) {
+            return parseExcelFile(is);
+        }
+    }
+
+    public List<SwiftCode> parseExcelFile(InputStream is) throws Exception {
         List<SwiftCode> swiftCodes = new ArrayList<>();
 
-        try (InputStream is = new ClassPathResource(resourcePath).getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
+        try (Workbook workbook = new XSSFWorkbook(is)) {
 
             Sheet sheet = workbook.getSheetAt(0);
             boolean isHeader = true;
@@ -25,18 +48,274 @@ public class SwiftCodeParser {
                     continue;
                 }
 
-                SwiftCode swiftCode = new SwiftCode();
-                swiftCode.setSwiftCode(row.getCell(1).getStringCellValue().trim());
-                swiftCode.setBankName(row.getCell(3).getStringCellValue().trim());
-                swiftCode.setAddress(row.getCell(4).getStringCellValue().trim());
-                swiftCode.setCountryISO2(row.getCell(0).getStringCellValue().toUpperCase().trim());
-                swiftCode.setCountryName(row.getCell(5).getStringCellValue().toUpperCase().trim());
-                swiftCode.setHeadquarter(swiftCode.getSwiftCode().endsWith("XXX"));
-
-                swiftCodes.add(swiftCode);
+                swiftCodes.add(toSwiftCode(
+                        row.getCell(0).getStringCellValue(),
+                        row.getCell(1).getStringCellValue(),
+                        row.getCell(3).getStringCellValue(),
+                        row.getCell(4).getStringCellValue(),
+                        row.getCell(5).getStringCellValue()
+                ));
             }
         }
 
         return swiftCodes;
     }
+
+    public long streamExcelFile(String resourcePath, Consumer<SwiftCode> consumer) throws Exception {
+        return streamExcelFile(new ClassPathResource(resourcePath), consumer);
+    }
+
+    public long streamExcelFile(Resource resource, Consumer<SwiftCode> consumer) throws Exception {
+        // Opening from a file lets POI read zip entries on demand instead of inflating the package into memory.
+        if (resource.isFile()) {
+            try (OPCPackage pkg = OPCPackage.open(resource.getFile(), PackageAccess.READ)) {
+                return streamSheet(pkg, 0, readSharedStrings(pkg), cells -> consumer.accept(normalize(cells)));
+            }
+        }
+        try (InputStream is = resource.getInputStream();
+             OPCPackage pkg = OPCPackage.open(is)) {
+            return streamSheet(pkg, 0, readSharedStrings(pkg), cells -> consumer.accept(normalize(cells)));
+        }
+    }
+
+    public List<String> readSharedStrings(File workbook) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(workbook, PackageAccess.READ)) {
+            return readSharedStrings(pkg);
+        }
+    }
+
+    public int countSheets(File workbook) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(workbook, PackageAccess.READ)) {
+            Iterator<InputStream> sheets = new XSSFReader(pkg).getSheetsData();
+            int count = 0;
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Reads the raw, un-normalized cells of one sheet. Each call opens its own package, so different
+     * sheets of the same workbook can be read concurrently; the shared strings are read once up front.
+     */
+    public long readSheet(File workbook, int sheetIndex, List<String> sharedStrings, Consumer<String[]> rows) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(workbook, PackageAccess.READ)) {
+            return streamSheet(pkg, sheetIndex, sharedStrings, rows);
+        }
+    }
+
+    /** Reads a CSV export with the same column layout as the spreadsheet, header row included. */
+    public long readCsv(Resource resource, Consumer<String[]> rows) throws Exception {
+        long count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rows.accept(splitCsvLine(line));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static SwiftCode normalize(String[] cells) {
+        return toSwiftCode(cells[0], cells[1], cells[3], cells[4], cells[5]);
+    }
+
+    private List<String> readSharedStrings(OPCPackage pkg) throws Exception {
+        // POI's own shared strings table and sheet handler build an XMLBeans rich text object per cell,
+        // which dominates the cost on large files; plain strings are all this importer needs.
+        SharedStringsHandler sharedStrings = new SharedStringsHandler();
+        try (InputStream data = new XSSFReader(pkg).getSharedStringsData()) {
+            if (data != null) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(sharedStrings);
+                xmlReader.parse(new InputSource(data));
+            }
+        }
+        return sharedStrings.strings;
+    }
+
+    private long streamSheet(OPCPackage pkg, int sheetIndex, List<String> sharedStrings, Consumer<String[]> rows) throws Exception {
+        SheetHandler sheetHandler = new SheetHandler(sharedStrings, rows);
+        Iterator<InputStream> sheets = new XSSFReader(pkg).getSheetsData();
+        for (int i = 0; sheets.hasNext(); i++) {
+            try (InputStream sheet = sheets.next()) {
+                if (i == sheetIndex) {
+                    XMLReader xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(sheetHandler);
+                    xmlReader.parse(new InputSource(sheet));
+                    break;
+                }
+            }
+        }
+        return sheetHandler.count;
+    }
+
+    private static String[] splitCsvLine(String line) {
+        String[] cells = new String[COLUMN_COUNT];
+        Arrays.fill(cells, "");
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        int column = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (column < COLUMN_COUNT) {
+                    cells[column] = cell.toString();
+                }
+                column++;
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (column < COLUMN_COUNT) {
+            cells[column] = cell.toString();
+        }
+        return cells;
+    }
+
+    private static SwiftCode toSwiftCode(String countryISO2, String code, String bankName, String address, String countryName) {
+        SwiftCode swiftCode = new SwiftCode();
+        swiftCode.setSwiftCode(code.toUpperCase().trim());
+        swiftCode.setBankName(bankName.trim());
+        swiftCode.setAddress(address.trim());
+        swiftCode.setCountryISO2(countryISO2.toUpperCase().trim());
+        swiftCode.setCountryName(countryName.toUpperCase().trim());
+        swiftCode.setHeadquarter(swiftCode.getSwiftCode().endsWith("XXX"));
+        return swiftCode;
+    }
+
+    private static final class SharedStringsHandler extends DefaultHandler {
+
+        private final List<String> strings = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private boolean inText;
+        private boolean inPhonetic;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "si" -> text.setLength(0);
+                case "t" -> inText = !inPhonetic;
+                case "rPh" -> inPhonetic = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "si" -> strings.add(text.toString());
+                case "t" -> inText = false;
+                case "rPh" -> inPhonetic = false;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+
+        private final List<String> sharedStrings;
+        private final Consumer<String[]> consumer;
+        private final String[] cells = new String[COLUMN_COUNT];
+        private final StringBuilder value = new StringBuilder();
+        private int rowNum;
+        private int column;
+        private String cellType;
+        private boolean inValue;
+        private long count;
+
+        private SheetHandler(List<String> sharedStrings, Consumer<String[]> consumer) {
+            this.sharedStrings = sharedStrings;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    Arrays.fill(cells, "");
+                    column = -1;
+                }
+                case "c" -> {
+                    String r = attributes.getValue("r");
+                    column = r != null ? columnIndex(r) : column + 1;
+                    cellType = attributes.getValue("t");
+                    value.setLength(0);
+                }
+                case "v", "t" -> inValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> {
+                    if (column < COLUMN_COUNT) {
+                        cells[column] = "s".equals(cellType)
+                                ? sharedStrings.get(Integer.parseInt(value.toString().trim()))
+                                : value.toString();
+                    }
+                }
+                case "row" -> {
+                    if (rowNum > 0) {
+                        consumer.accept(cells.clone());
+                        count++;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private static int columnIndex(String cellReference) {
+            int column = 0;
+            for (int i = 0; i < cellReference.length(); i++) {
+                char c = cellReference.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
 }
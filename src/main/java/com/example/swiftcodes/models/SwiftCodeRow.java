@@ -0,0 +1,21 @@
+package com.example.swiftcodes.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * The swift_code table as seen by the R2DBC repository of the reactive profile. Reads go through
+ * SwiftCodeView projections; writes stay with the JPA entity.
+ */
+@Table("swift_code")
+public record SwiftCodeRow(
+        @Id Long id,
+        String swiftCode,
+        String bankName,
+        String address,
+        @Column("countryiso2") String countryISO2,
+        boolean isHeadquarter,
+        Long relatedHeadquarterId
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.swiftcodes.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record SwiftCodeView(
+        String swiftCode,
+        String bankName,
+        String address,
+        String countryISO2,
+        String countryName,
+        @JsonProperty("isHeadquarter") boolean isHeadquarter,
+        String headquarterCode
+) {
+
+    public static SwiftCodeView from(SwiftCode code) {
+        SwiftCode headquarter = code.getRelatedHeadquarter();
+        return new SwiftCodeView(
+                code.getSwiftCode(),
+                code.getBankName(),
+                code.getAddress(),
+                code.getCountryISO2(),
+                code.getCountryName(),
+                code.isHeadquarter(),
+                headquarter != null ? headquarter.getSwiftCode() : null
+        );
+    }
+}
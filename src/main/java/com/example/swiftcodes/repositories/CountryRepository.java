@@ -0,0 +1,19 @@
+package com.example.swiftcodes.repositories;
+
+import com.example.swiftcodes.models.Country;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CountryRepository extends JpaRepository<Country, String> {
+
+    // INSERT IGNORE rather than find-then-save: two requests adding the first code of a country must not collide.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO country (iso2, name) VALUES (:iso2, :name)", nativeQuery = true)
+    int insertIfAbsent(@Param("iso2") String iso2, @Param("name") String name);
+}
@@ -0,0 +1,39 @@
+package com.example.swiftcodes.repositories;
+
+import com.example.swiftcodes.models.SwiftCodeRow;
+import com.example.swiftcodes.models.SwiftCodeView;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterparts of the SwiftCodeRepository finders, used by the reactive profile.
+ * Columns are read into SwiftCodeView by name, using the SwiftCodeRow mapping where the two share a property.
+ */
+@Repository
+public interface ReactiveSwiftCodeRepository extends ReactiveCrudRepository<SwiftCodeRow, Long> {
+
+    String VIEW = "select s.swift_code, s.bank_name, s.address, s.countryiso2, c.name as country_name, " +
+            "s.is_headquarter, h.swift_code as headquarter_code " +
+            "from swift_code s join country c on c.iso2 = s.countryiso2 left join swift_code h on h.id = s.related_headquarter_id ";
+
+    @Query(VIEW + "where s.swift_code = :swiftCode union all " + VIEW + "where h.swift_code = :swiftCode")
+    Flux<SwiftCodeView> findViewWithBranches(@Param("swiftCode") String swiftCode);
+
+    @Query(VIEW + "where s.swift_code in (:swiftCodes) union all " + VIEW + "where h.swift_code in (:swiftCodes)")
+    Flux<SwiftCodeView> findViewsWithBranchesIn(@Param("swiftCodes") Collection<String> swiftCodes);
+
+    @Query(VIEW + "where s.countryiso2 = :countryISO2 order by s.countryiso2, s.swift_code")
+    Flux<SwiftCodeView> findViewsByCountryISO2(@Param("countryISO2") String countryISO2);
+
+    @Query(VIEW + "where s.countryiso2 = :countryISO2 and s.swift_code > :after order by s.countryiso2, s.swift_code limit :limit")
+    Flux<SwiftCodeView> findViewsByCountryISO2After(@Param("countryISO2") String countryISO2, @Param("after") String after,
+                                                    @Param("limit") int limit);
+
+    Mono<Boolean> existsByCountryISO2(String countryISO2);
+}
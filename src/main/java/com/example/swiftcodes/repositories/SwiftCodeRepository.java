@@ -1,11 +1,20 @@
 package com.example.swiftcodes.repositories;
 
 import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SwiftCodeRepository extends JpaRepository<SwiftCode, Long> {
@@ -19,4 +28,38 @@ public interface SwiftCodeRepository extends JpaRepository<SwiftCode, Long> {
 
     boolean existsBySwiftCode(String swiftCode);
 
+    @Query("select new com.example.swiftcodes.models.SwiftCodeView(s.swiftCode, s.bankName, s.address, s.countryISO2, sc.name, s.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode s join Country sc on sc.iso2 = s.countryISO2 left join s.relatedHeadquarter h order by s.id")
+    List<SwiftCodeView> findAllViews();
+
+    @Query("select new com.example.swiftcodes.models.SwiftCodeView(s.swiftCode, s.bankName, s.address, s.countryISO2, sc.name, s.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode s join Country sc on sc.iso2 = s.countryISO2 left join s.relatedHeadquarter h where s.swiftCode = :swiftCode " +
+            "union all " +
+            "select new com.example.swiftcodes.models.SwiftCodeView(b.swiftCode, b.bankName, b.address, b.countryISO2, bc.name, b.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode b join Country bc on bc.iso2 = b.countryISO2 join b.relatedHeadquarter h where h.swiftCode = :swiftCode")
+    List<SwiftCodeView> findViewWithBranches(@Param("swiftCode") String swiftCode);
+
+    @Query("select new com.example.swiftcodes.models.SwiftCodeView(s.swiftCode, s.bankName, s.address, s.countryISO2, sc.name, s.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode s join Country sc on sc.iso2 = s.countryISO2 left join s.relatedHeadquarter h where s.swiftCode in :swiftCodes " +
+            "union all " +
+            "select new com.example.swiftcodes.models.SwiftCodeView(b.swiftCode, b.bankName, b.address, b.countryISO2, bc.name, b.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode b join Country bc on bc.iso2 = b.countryISO2 join b.relatedHeadquarter h where h.swiftCode in :swiftCodes")
+    List<SwiftCodeView> findViewsWithBranchesIn(@Param("swiftCodes") Collection<String> swiftCodes);
+
+    // Ordering by the (constant) country too lets every optimizer read idx_swift_code_country in order instead of sorting.
+    @Query("select new com.example.swiftcodes.models.SwiftCodeView(s.swiftCode, s.bankName, s.address, s.countryISO2, sc.name, s.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode s join Country sc on sc.iso2 = s.countryISO2 left join s.relatedHeadquarter h where s.countryISO2 = :countryISO2 order by s.countryISO2, s.swiftCode")
+    List<SwiftCodeView> findViewsByCountryISO2(@Param("countryISO2") String countryISO2);
+
+    @Query("select new com.example.swiftcodes.models.SwiftCodeView(s.swiftCode, s.bankName, s.address, s.countryISO2, sc.name, s.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode s join Country sc on sc.iso2 = s.countryISO2 left join s.relatedHeadquarter h where s.countryISO2 = :countryISO2 and s.swiftCode > :after order by s.countryISO2, s.swiftCode")
+    List<SwiftCodeView> findViewsByCountryISO2After(@Param("countryISO2") String countryISO2, @Param("after") String after, Pageable pageable);
+
+    @Query("select new com.example.swiftcodes.models.SwiftCodeView(s.swiftCode, s.bankName, s.address, s.countryISO2, sc.name, s.isHeadquarter, h.swiftCode) " +
+            "from SwiftCode s join Country sc on sc.iso2 = s.countryISO2 left join s.relatedHeadquarter h where s.countryISO2 = :countryISO2 order by s.countryISO2, s.swiftCode")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<SwiftCodeView> streamViewsByCountryISO2(@Param("countryISO2") String countryISO2);
+
+    boolean existsByCountryISO2(String countryISO2);
+
 }
@@ -0,0 +1,141 @@
+package com.example.swiftcodes.services;
+
+import com.example.swiftcodes.exceptions.GlobalExceptionHandler;
+import com.example.swiftcodes.initializer.SwiftCodeDeltaImporter;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.ReactiveSwiftCodeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The read paths of SwiftCodeService for the reactive profile. Lookup hits are answered on the
+ * event loop, database reads go through R2DBC, and the writes and imports, which are rare and
+ * transactional, run the blocking service on the bounded elastic scheduler. So do lookup reads
+ * that would first load the snapshot over JDBC or build the search index.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveSwiftCodeService {
+
+    private final ReactiveSwiftCodeRepository repository;
+    private final SwiftCodeService service;
+    private final SwiftCodeLookup lookup;
+    private final int maxPageSize;
+    private final int maxLookupSize;
+    private final int streamPrefetch;
+
+    public ReactiveSwiftCodeService(ReactiveSwiftCodeRepository repository,
+                                    SwiftCodeService service,
+                                    SwiftCodeLookup lookup,
+                                    @Value("${swiftcodes.country.max-page-size:1000}") int maxPageSize,
+                                    @Value("${swiftcodes.lookup.max-batch-size:10000}") int maxLookupSize,
+                                    @Value("${swiftcodes.reactive.stream-prefetch:256}") int streamPrefetch) {
+        this.repository = repository;
+        this.service = service;
+        this.lookup = lookup;
+        this.maxPageSize = maxPageSize;
+        this.maxLookupSize = maxLookupSize;
+        this.streamPrefetch = streamPrefetch;
+    }
+
+    public Mono<Object> getSwiftCodeDetails(String swiftCode) {
+        if (lookup.isEnabled()) {
+            return fromLookup(() -> SwiftCodeService.details(lookup, swiftCode), lookup.isLoaded());
+        }
+        return repository.findViewWithBranches(swiftCode)
+                .collectList()
+                .map(rows -> SwiftCodeService.details(swiftCode, rows));
+    }
+
+    public Mono<Object> getSwiftCodesByCountry(String countryISO2) {
+        return repository.findViewsByCountryISO2(countryISO2.toUpperCase())
+                .collectList()
+                .map(codes -> SwiftCodeService.countryListing(countryISO2, codes));
+    }
+
+    public Mono<Map<String, Object>> getSwiftCodesByCountryPage(String countryISO2, int limit, String after) {
+        if (limit < 1 || limit > maxPageSize) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize));
+        }
+
+        String country = countryISO2.toUpperCase();
+        return repository.findViewsByCountryISO2After(country, after != null ? after : "", limit)
+                .collectList()
+                .map(codes -> SwiftCodeService.countryPage(country, codes, limit, after));
+    }
+
+    // Rows are requested from the driver in batches of streamPrefetch as the client drains the response,
+    // so a slow reader holds one batch in memory rather than the whole country.
+    public Flux<Map<String, Object>> streamSwiftCodesByCountry(String countryISO2) {
+        String country = countryISO2.toUpperCase();
+        return repository.existsByCountryISO2(country)
+                .flatMapMany(exists -> exists
+                        ? repository.findViewsByCountryISO2(country).limitRate(streamPrefetch).map(SwiftCodeService::toSummary)
+                        : Flux.error(new GlobalExceptionHandler.SwiftCodeNotFoundException("No SWIFT codes found for country: " + countryISO2)));
+    }
+
+    public Flux<Map<String, Object>> lookupSwiftCodes(List<String> swiftCodes) {
+        if (swiftCodes.size() > maxLookupSize) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxLookupSize + " SWIFT codes can be looked up in one request"));
+        }
+        if (swiftCodes.contains(null)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "SWIFT codes to look up must not be null"));
+        }
+        Flux<Map<String, Object>> resolved = Flux.fromIterable(swiftCodes)
+                .buffer(SwiftCodeService.LOOKUP_CHUNK_SIZE)
+                .concatMap(chunk -> lookup.isEnabled()
+                        ? Flux.fromIterable(SwiftCodeService.resolved(lookup, chunk))
+                        : repository.findViewsWithBranchesIn(new HashSet<>(chunk))
+                                .collectList()
+                                .flatMapIterable(rows -> SwiftCodeService.resolved(chunk, rows)));
+        return lookup.isEnabled() && !lookup.isLoaded() ? resolved.subscribeOn(Schedulers.boundedElastic()) : resolved;
+    }
+
+    public Mono<Map<String, Object>> searchSwiftCodes(String query, String field, int fuzzy, int limit) {
+        return fromLookup(() -> service.searchSwiftCodes(query, field, fuzzy, limit), lookup.isSearchReady());
+    }
+
+    public Mono<Map<String, Object>> getStats() {
+        return fromLookup(() -> SwiftCodeService.stats(lookup.stats()), lookup.isLoaded());
+    }
+
+    public Mono<Map<String, Object>> getCountryStats(String countryISO2) {
+        return fromLookup(() -> SwiftCodeService.countryStats(lookup.stats(), countryISO2), lookup.isLoaded());
+    }
+
+    // The snapshot may be dropped again before subscription; that only costs one blocking load on the event loop.
+    private static <T> Mono<T> fromLookup(Supplier<T> read, boolean inMemory) {
+        Mono<T> result = Mono.fromSupplier(read);
+        return inMemory ? result : result.subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<SwiftCodeDeltaImporter.DeltaResult> importDirectory(Resource file, boolean allowMassDelete) {
+        return Mono.fromCallable(() -> service.importDirectory(file, allowMassDelete)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<SwiftCodeBulkWriter.BulkResult> bulkWrite(List<SwiftCodeBulkWriter.Operation> operations, String mode) {
+        return Mono.fromCallable(() -> service.bulkWrite(operations, mode)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<SwiftCode> addSwiftCode(SwiftCode swiftCode) {
+        return Mono.fromCallable(() -> service.addSwiftCode(swiftCode)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Map<String, String>> deleteSwiftCode(String swiftCode, String bankName, String countryISO2) {
+        return Mono.fromCallable(() -> service.deleteSwiftCode(swiftCode, bankName, countryISO2)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
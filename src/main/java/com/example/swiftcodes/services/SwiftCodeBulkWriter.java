@@ -0,0 +1,293 @@
+package com.example.swiftcodes.services;
+
+import com.example.swiftcodes.initializer.SwiftCodeBulkLoader;
+import com.example.swiftcodes.lookup.DirectoryChangeFeed;
+import com.example.swiftcodes.lookup.SwiftCodeCodec;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.CountryRepository;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies a list of inserts and deletes in one transaction with a number of statements that does not
+ * grow with the items: one set-based read of the affected rows validates every item, and the writes
+ * go out as JDBC batches. Items are checked in order against the state the earlier items leave, so a
+ * code can be deleted and inserted again in one request. New rows are linked to the headquarter of
+ * their 8-character prefix, as in a directory import.
+ */
+@Component
+public class SwiftCodeBulkWriter {
+
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
+    // Never a database id: marks a row inserted by an earlier item of the same request.
+    private static final long PENDING = 0;
+
+    private static final String ROWS_SQL = "SELECT id, swift_code, bank_name, countryiso2, is_headquarter, related_headquarter_id " +
+            "FROM swift_code WHERE swift_code IN (%s)";
+
+    private static final String BRANCH_ROWS_SQL = "SELECT b.id, b.swift_code, b.bank_name, b.countryiso2, b.is_headquarter, b.related_headquarter_id " +
+            "FROM swift_code b JOIN swift_code h ON h.id = b.related_headquarter_id WHERE h.swift_code IN (%s)";
+
+    private static final String DELETE_BRANCHES_SQL = "DELETE FROM swift_code WHERE related_headquarter_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM swift_code WHERE swift_code = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SwiftCodeRepository repository;
+    private final CountryRepository countryRepository;
+    private final SwiftCodeBulkLoader bulkLoader;
+    private final SwiftCodeLookup lookup;
+    private final DirectoryChangeFeed changeFeed;
+    private final int maxOperations;
+
+    public SwiftCodeBulkWriter(JdbcTemplate jdbcTemplate,
+                               SwiftCodeRepository repository,
+                               CountryRepository countryRepository,
+                               SwiftCodeBulkLoader bulkLoader,
+                               SwiftCodeLookup lookup,
+                               DirectoryChangeFeed changeFeed,
+                               @Value("${swiftcodes.bulk.max-operations:10000}") int maxOperations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = repository;
+        this.countryRepository = countryRepository;
+        this.bulkLoader = bulkLoader;
+        this.lookup = lookup;
+        this.changeFeed = changeFeed;
+        this.maxOperations = maxOperations;
+    }
+
+    /** An insert carries the fields of POST /v1/swift-codes; a delete only the code, bank name and country. */
+    public record Operation(String op, String swiftCode, String bankName, String address, String countryISO2,
+                            String countryName, @JsonProperty("isHeadquarter") Boolean isHeadquarter) {
+    }
+
+    public record ItemResult(int index, String op, String swiftCode, String status, String message) {
+    }
+
+    public record BulkResult(String mode, boolean applied, int inserted, int deleted, int failed, List<ItemResult> results) {
+    }
+
+    private record Row(long id, String swiftCode, String bankName, String countryISO2, boolean isHeadquarter,
+                       Long headquarterId) {
+    }
+
+    @Transactional
+    public BulkResult apply(List<Operation> operations, String mode) {
+        boolean allOrNothing = allOrNothing(mode);
+        if (operations.size() > maxOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxOperations + " operations can be applied in one request");
+        }
+
+        Map<String, Row> present = rows(operations);
+        Map<Long, List<Row>> branches = new HashMap<>();
+        present.values().stream()
+                .filter(row -> row.headquarterId() != null)
+                .forEach(row -> branches.computeIfAbsent(row.headquarterId(), id -> new ArrayList<>()).add(row));
+        Map<String, String> countries = countries(operations);
+
+        Map<String, String> newCountries = new LinkedHashMap<>();
+        Map<String, SwiftCode> inserts = new LinkedHashMap<>();
+        Set<String> deletes = new LinkedHashSet<>();
+        Set<String> removals = new LinkedHashSet<>();
+        List<Long> headquarterIds = new ArrayList<>();
+        List<ItemResult> results = new ArrayList<>(operations.size());
+        int failed = 0;
+
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            String op = operation.op() != null ? operation.op().toLowerCase(Locale.ROOT) : "";
+            String code = operation.swiftCode();
+            ItemResult result = switch (op) {
+                case "insert" -> {
+                    String error = insertError(operation);
+                    if (error != null) {
+                        yield new ItemResult(i, op, code, "invalid", error);
+                    }
+                    if (present.containsKey(code)) {
+                        yield new ItemResult(i, op, code, "conflict", "SWIFT code already exists: " + code);
+                    }
+                    String country = operation.countryISO2().toUpperCase(Locale.ROOT);
+                    String countryName = countries.get(country);
+                    if (countryName == null) {
+                        if (operation.countryName() == null || operation.countryName().isBlank()) {
+                            yield new ItemResult(i, op, code, "invalid", "countryName is required for a new country");
+                        }
+                        countryName = operation.countryName();
+                        countries.put(country, countryName);
+                        newCountries.put(country, countryName);
+                    }
+                    boolean headquarter = operation.isHeadquarter() != null ? operation.isHeadquarter() : code.endsWith("XXX");
+                    present.put(code, new Row(PENDING, code, operation.bankName(), country, headquarter, null));
+                    inserts.put(code, new SwiftCode(code, operation.bankName(), operation.address(), country, countryName, headquarter, null));
+                    yield new ItemResult(i, op, code, "inserted", null);
+                }
+                case "delete" -> {
+                    if (code == null || operation.bankName() == null || operation.countryISO2() == null) {
+                        yield new ItemResult(i, op, code, "invalid", "swiftCode, bankName and countryISO2 are required to delete");
+                    }
+                    Row row = present.get(code);
+                    if (row == null || !Objects.equals(row.bankName(), operation.bankName())
+                            || !row.countryISO2().equalsIgnoreCase(operation.countryISO2())) {
+                        yield new ItemResult(i, op, code, "not_found", "SWIFT code not found with the given details");
+                    }
+                    present.remove(code);
+                    if (row.id() == PENDING) {
+                        inserts.remove(code);
+                        yield new ItemResult(i, op, code, "deleted", null);
+                    }
+                    deletes.add(code);
+                    removals.add(code);
+                    int branchCount = 0;
+                    if (row.isHeadquarter()) {
+                        headquarterIds.add(row.id());
+                        // A branch deleted and inserted again by earlier items is no longer this headquarter's.
+                        for (Row branch : branches.getOrDefault(row.id(), List.of())) {
+                            if (present.remove(branch.swiftCode(), branch)) {
+                                removals.add(branch.swiftCode());
+                                branchCount++;
+                            }
+                        }
+                    }
+                    yield new ItemResult(i, op, code, "deleted",
+                            branchCount > 0 ? "Deleted with " + branchCount + " branches" : null);
+                }
+                default -> new ItemResult(i, operation.op(), code, "invalid", "op must be insert or delete");
+            };
+            if (!result.status().equals("inserted") && !result.status().equals("deleted")) {
+                failed++;
+            }
+            results.add(result);
+        }
+
+        if (failed > 0 && allOrNothing) {
+            List<ItemResult> skipped = results.stream()
+                    .map(result -> result.status().equals("inserted") || result.status().equals("deleted")
+                            ? new ItemResult(result.index(), result.op(), result.swiftCode(), "skipped",
+                                    "Not applied: another operation in the request failed")
+                            : result)
+                    .toList();
+            return new BulkResult(mode, false, 0, 0, failed, skipped);
+        }
+
+        newCountries.forEach(countryRepository::insertIfAbsent);
+        // Branches go first, in one statement per headquarter, so the foreign key never sees a dangling link.
+        jdbcTemplate.batchUpdate(DELETE_BRANCHES_SQL, headquarterIds.stream().map(id -> new Object[]{id}).toList());
+        jdbcTemplate.batchUpdate(DELETE_SQL, deletes.stream().map(code -> new Object[]{code}).toList());
+        bulkLoader.insert(new ArrayList<>(inserts.values()));
+
+        Set<String> prefixes = new HashSet<>();
+        inserts.keySet().forEach(code -> prefixes.add(SwiftCodeCodec.prefix(code)));
+        bulkLoader.linkPrefixes(prefixes);
+
+        List<SwiftCodeView> upserts = new ArrayList<>();
+        List<String> inserted = new ArrayList<>(inserts.keySet());
+        for (int from = 0; from < inserted.size(); from += QUERY_CHUNK_SIZE) {
+            upserts.addAll(repository.findViewsWithBranchesIn(inserted.subList(from, Math.min(inserted.size(), from + QUERY_CHUNK_SIZE))));
+        }
+        removals.removeAll(inserts.keySet());
+
+        List<String> changed = new ArrayList<>(removals);
+        upserts.forEach(view -> changed.add(view.swiftCode()));
+        changeFeed.record(changed);
+        lookup.written(upserts, removals);
+
+        int deleted = (int) results.stream().filter(result -> result.status().equals("deleted")).count();
+        return new BulkResult(mode, true, inserts.size(), deleted, failed, results);
+    }
+
+    private static String insertError(Operation operation) {
+        if (operation.swiftCode() == null || operation.swiftCode().isEmpty()) {
+            return "SWIFT code cannot be empty or null";
+        }
+        if (operation.swiftCode().length() > 11) {
+            return "SWIFT code cannot be longer than 11 characters";
+        }
+        if (operation.countryISO2() == null || operation.countryISO2().length() != 2) {
+            return "countryISO2 must be a two-letter country code";
+        }
+        if (operation.bankName() == null || operation.address() == null) {
+            return "bankName and address are required";
+        }
+        return null;
+    }
+
+    // The codes named by the request, plus the branches of the ones it deletes, in one query per chunk.
+    private Map<String, Row> rows(List<Operation> operations) {
+        Set<String> codes = new LinkedHashSet<>();
+        Set<String> deleted = new HashSet<>();
+        for (Operation operation : operations) {
+            if (operation.swiftCode() != null && !operation.swiftCode().isEmpty()) {
+                codes.add(operation.swiftCode());
+                if ("delete".equalsIgnoreCase(operation.op())) {
+                    deleted.add(operation.swiftCode());
+                }
+            }
+        }
+
+        Map<String, Row> rows = new HashMap<>();
+        List<String> all = new ArrayList<>(codes);
+        for (int from = 0; from < all.size(); from += QUERY_CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + QUERY_CHUNK_SIZE));
+            List<String> headquarters = chunk.stream().filter(deleted::contains).toList();
+            String sql = ROWS_SQL.formatted(placeholders(chunk.size()));
+            List<Object> args = new ArrayList<>(chunk);
+            if (!headquarters.isEmpty()) {
+                sql += " UNION " + BRANCH_ROWS_SQL.formatted(placeholders(headquarters.size()));
+                args.addAll(headquarters);
+            }
+            jdbcTemplate.query(sql, rs -> {
+                Row row = new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getBoolean(5), rs.getObject(6, Long.class));
+                rows.put(row.swiftCode(), row);
+            }, args.toArray());
+        }
+        return rows;
+    }
+
+    private Map<String, String> countries(List<Operation> operations) {
+        Set<String> isos = new HashSet<>();
+        operations.stream()
+                .filter(operation -> "insert".equalsIgnoreCase(operation.op()) && operation.countryISO2() != null)
+                .forEach(operation -> isos.add(operation.countryISO2().toUpperCase(Locale.ROOT)));
+        Map<String, String> countries = new HashMap<>();
+        for (Country country : countryRepository.findAllById(isos)) {
+            countries.put(country.getIso2(), country.getName());
+        }
+        return countries;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static boolean allOrNothing(String mode) {
+        return switch (mode) {
+            case "all-or-nothing" -> true;
+            case "best-effort" -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be all-or-nothing or best-effort");
+        };
+    }
+}
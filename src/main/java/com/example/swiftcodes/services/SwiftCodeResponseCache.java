@@ -0,0 +1,166 @@
+package com.example.swiftcodes.services;
+
+import com.example.swiftcodes.config.ReplicaRoutingDataSource;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized response bodies keyed by the entity tag they were built under, with a gzip copy for
+ * bodies large enough to benefit. A request whose tag still matches is answered from the stored
+ * bytes, without a transaction, query or Jackson pass; a write changes the tag, and the next request
+ * rebuilds the entry. Concurrent misses for the same key and tag share one build, so a popular code
+ * whose tag just changed costs one query rather than one per waiting request. Deliberately not
+ * transactional: a cache hit must not borrow a connection.
+ * <p>
+ * Code details are bounded by max-detail-entries, evicting the least recently used, and the entries
+ * of deleted codes are dropped as soon as the delete is applied to the lookup.
+ */
+@Component
+public class SwiftCodeResponseCache {
+
+    public record Body(byte[] identity, byte[] gzip) {
+    }
+
+    private record Entry(String tag, Body body) {
+    }
+
+    private record Flight(String key, String tag) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+    private final int gzipMinBytes;
+    private final LruMap countries = new LruMap(Integer.MAX_VALUE);
+    private final LruMap details;
+    private final SingleFlight<Flight, Body> countryLoads = new SingleFlight<>();
+    private final SingleFlight<Flight, Body> detailLoads = new SingleFlight<>();
+
+    public SwiftCodeResponseCache(ObjectMapper objectMapper,
+                                  SwiftCodeLookup lookup,
+                                  @Value("${swiftcodes.cache.max-body-bytes:1048576}") int maxBodyBytes,
+                                  @Value("${swiftcodes.cache.max-detail-entries:100000}") int maxDetailEntries,
+                                  @Value("${swiftcodes.cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBodyBytes = maxBodyBytes;
+        this.details = new LruMap(maxDetailEntries);
+        this.gzipMinBytes = gzipMinBytes;
+        lookup.onRemoved(swiftCodes -> swiftCodes.forEach(details::remove));
+    }
+
+    public Body country(String countryISO2, String tag, Supplier<Object> body) throws JsonProcessingException {
+        return cached(countries, countryLoads, countryISO2, tag, body);
+    }
+
+    public Body detail(String swiftCode, String tag, Supplier<Object> body) throws JsonProcessingException {
+        return cached(details, detailLoads, swiftCode, tag, body);
+    }
+
+    /** The stored body if it was built under this tag, for callers that produce the value asynchronously. */
+    public Body cachedCountry(String countryISO2, String tag) {
+        return current(countries.get(countryISO2), tag);
+    }
+
+    public Body cachedDetail(String swiftCode, String tag) {
+        return current(details.get(swiftCode), tag);
+    }
+
+    private static Body current(Entry entry, String tag) {
+        return entry != null && entry.tag().equals(tag) ? entry.body() : null;
+    }
+
+    private Body cached(LruMap entries, SingleFlight<Flight, Body> loads, String key, String tag,
+                        Supplier<Object> body) throws JsonProcessingException {
+        Body cached = current(entries.get(key), tag);
+        if (cached != null) {
+            return cached;
+        }
+        return loads.load(new Flight(key, tag), () -> build(entries, key, tag, body));
+    }
+
+    private Body build(LruMap entries, String key, String tag, Supplier<Object> body) throws JsonProcessingException {
+        // A caller that missed just before the previous load stored its entry finds it here.
+        Entry cached = entries.get(key);
+        if (cached != null && cached.tag().equals(tag)) {
+            return cached.body();
+        }
+        // Stored under the new tag until the next change, so it must not be built from a lagging replica. A tag
+        // changed by the change feed does not open this node's primary window, which only follows local writes.
+        byte[] serialized = objectMapper.writeValueAsBytes(ReplicaRoutingDataSource.onPrimary(body));
+        Body encoded = new Body(serialized, serialized.length >= gzipMinBytes ? gzip(serialized) : null);
+        // Very large countries are better served by the paginated or streaming variants than kept in memory.
+        if (serialized.length <= maxBodyBytes) {
+            entries.put(key, new Entry(tag, encoded));
+        }
+        return encoded;
+    }
+
+    // Least recently used eviction in independently locked stripes, so hits on different keys rarely contend.
+    // The locks are held only for the map operation, never across a load.
+    private static final class LruMap {
+
+        private static final int STRIPES = 16;
+
+        private final LinkedHashMap<String, Entry>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        private LruMap(int maxEntries) {
+            int count = maxEntries < STRIPES * 64 ? 1 : STRIPES;
+            int perStripe = maxEntries == Integer.MAX_VALUE ? Integer.MAX_VALUE : (maxEntries + count - 1) / count;
+            stripes = new LinkedHashMap[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                        return size() > perStripe;
+                    }
+                };
+            }
+        }
+
+        Entry get(String key) {
+            LinkedHashMap<String, Entry> stripe = stripe(key);
+            synchronized (stripe) {
+                return stripe.get(key);
+            }
+        }
+
+        void put(String key, Entry entry) {
+            LinkedHashMap<String, Entry> stripe = stripe(key);
+            synchronized (stripe) {
+                stripe.put(key, entry);
+            }
+        }
+
+        void remove(String key) {
+            LinkedHashMap<String, Entry> stripe = stripe(key);
+            synchronized (stripe) {
+                stripe.remove(key);
+            }
+        }
+
+        private LinkedHashMap<String, Entry> stripe(String key) {
+            return stripes[(key.hashCode() & 0x7fffffff) % stripes.length];
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,74 +1,354 @@
 package com.example.swiftcodes.services;
 
 import com.example.swiftcodes.exceptions.GlobalExceptionHandler;
+import com.example.swiftcodes.initializer.SwiftCodeDeltaImporter;
+import com.example.swiftcodes.lookup.DirectoryChangeFeed;
+import com.example.swiftcodes.lookup.DirectoryStats;
+import com.example.swiftcodes.lookup.SearchField;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
 import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeParser;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.CountryRepository;
 import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class SwiftCodeService {
 
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final int MAX_SEARCH_EDITS = 2;
+
     private final SwiftCodeRepository repository;
+    private final CountryRepository countryRepository;
+    private final SwiftCodeLookup lookup;
+    private final SwiftCodeDeltaImporter deltaImporter;
+    private final DirectoryChangeFeed changeFeed;
+    private final SwiftCodeBulkWriter bulkWriter;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int maxLookupSize;
+    private final int maxSearchLimit;
 
-    public SwiftCodeService(SwiftCodeRepository repository) {
+    public SwiftCodeService(SwiftCodeRepository repository,
+                            CountryRepository countryRepository,
+                            SwiftCodeLookup lookup,
+                            SwiftCodeDeltaImporter deltaImporter,
+                            DirectoryChangeFeed changeFeed,
+                            SwiftCodeBulkWriter bulkWriter,
+                            ObjectMapper objectMapper,
+                            @Value("${swiftcodes.country.max-page-size:1000}") int maxPageSize,
+                            @Value("${swiftcodes.lookup.max-batch-size:10000}") int maxLookupSize,
+                            @Value("${swiftcodes.search.max-limit:100}") int maxSearchLimit) {
         this.repository = repository;
+        this.countryRepository = countryRepository;
+        this.lookup = lookup;
+        this.deltaImporter = deltaImporter;
+        this.changeFeed = changeFeed;
+        this.bulkWriter = bulkWriter;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.maxLookupSize = maxLookupSize;
+        this.maxSearchLimit = maxSearchLimit;
     }
 
+    @Transactional(readOnly = true)
     public Object getSwiftCodeDetails(String swiftCode) {
-        SwiftCode code = repository.findBySwiftCode(swiftCode)
+        if (lookup.isEnabled()) {
+            return details(lookup, swiftCode);
+        }
+        return details(swiftCode, repository.findViewWithBranches(swiftCode));
+    }
+
+    // The static builders below are shared with ReactiveSwiftCodeService, which reads the same rows through R2DBC.
+    static Map<String, Object> details(SwiftCodeLookup lookup, String swiftCode) {
+        SwiftCodeView code = lookup.find(swiftCode)
+                .orElseThrow(() -> new GlobalExceptionHandler.SwiftCodeNotFoundException("SWIFT code not found: " + swiftCode));
+        return toDetails(code, code.isHeadquarter() ? lookup.branchesOf(code.swiftCode()) : List.of());
+    }
+
+    static Map<String, Object> details(String swiftCode, List<SwiftCodeView> rows) {
+        SwiftCodeView code = rows.stream()
+                .filter(row -> row.swiftCode().equals(swiftCode))
+                .findFirst()
                 .orElseThrow(() -> new GlobalExceptionHandler.SwiftCodeNotFoundException("SWIFT code not found: " + swiftCode));
 
-        if (code.isHeadquarter()) {
-            List<SwiftCode> branches = repository.findByRelatedHeadquarterId(code.getId());
+        List<SwiftCodeView> branches = rows.stream()
+                .filter(row -> swiftCode.equals(row.headquarterCode()))
+                .toList();
+        return toDetails(code, branches);
+    }
 
+    static Map<String, Object> toDetails(SwiftCodeView code, List<SwiftCodeView> branches) {
+        if (code.isHeadquarter()) {
             return Map.of(
-                    "address", code.getAddress(),
-                    "bankName", code.getBankName(),
-                    "countryISO2", code.getCountryISO2(),
-                    "countryName", code.getCountryName(),
+                    "address", code.address(),
+                    "bankName", code.bankName(),
+                    "countryISO2", code.countryISO2(),
+                    "countryName", code.countryName(),
                     "isHeadquarter", true,
-                    "swiftCode", code.getSwiftCode(),
-                    "branches", branches.stream().map(branch -> Map.of(
-                            "address", branch.getAddress(),
-                            "bankName", branch.getBankName(),
-                            "countryISO2", branch.getCountryISO2(),
-                            "isHeadquarter", branch.isHeadquarter(),
-                            "swiftCode", branch.getSwiftCode()
-                    )).toList()
+                    "swiftCode", code.swiftCode(),
+                    "branches", branches.stream().map(SwiftCodeService::toSummary).toList()
             );
         }
 
         return Map.of(
-                "address", code.getAddress(),
-                "bankName", code.getBankName(),
-                "countryISO2", code.getCountryISO2(),
-                "countryName", code.getCountryName(),
+                "address", code.address(),
+                "bankName", code.bankName(),
+                "countryISO2", code.countryISO2(),
+                "countryName", code.countryName(),
                 "isHeadquarter", false,
-                "swiftCode", code.getSwiftCode()
+                "swiftCode", code.swiftCode()
+        );
+    }
+
+    static Map<String, Object> toSummary(SwiftCodeView code) {
+        return Map.of(
+                "address", code.address(),
+                "bankName", code.bankName(),
+                "countryISO2", code.countryISO2(),
+                "isHeadquarter", code.isHeadquarter(),
+                "swiftCode", code.swiftCode()
         );
     }
 
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getSwiftCodesByCountry(String countryISO2) {
-        List<SwiftCode> codes = repository.findByCountryISO2(countryISO2.toUpperCase());
+        return countryListing(countryISO2, repository.findViewsByCountryISO2(countryISO2.toUpperCase()));
+    }
+
+    static Map<String, Object> countryListing(String countryISO2, List<SwiftCodeView> codes) {
         if (codes.isEmpty()) {
             throw new GlobalExceptionHandler.SwiftCodeNotFoundException("No SWIFT codes found for country: " + countryISO2);
         }
 
         return Map.of(
                 "countryISO2", countryISO2.toUpperCase(),
-                "countryName", codes.get(0).getCountryName(),
-                "swiftCodes", codes
+                "countryName", codes.get(0).countryName(),
+                "swiftCodes", codes.stream().map(SwiftCodeService::toSummary).toList()
+        );
+    }
+
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSwiftCodesByCountryPage(String countryISO2, int limit, String after) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+        }
+
+        String country = countryISO2.toUpperCase();
+        List<SwiftCodeView> codes = repository.findViewsByCountryISO2After(
+                country, after != null ? after : "", PageRequest.of(0, limit));
+        return countryPage(country, codes, limit, after);
+    }
+
+    static Map<String, Object> countryPage(String country, List<SwiftCodeView> codes, int limit, String after) {
+        if (codes.isEmpty() && after == null) {
+            throw new GlobalExceptionHandler.SwiftCodeNotFoundException("No SWIFT codes found for country: " + country);
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("countryISO2", country);
+        if (!codes.isEmpty()) {
+            page.put("countryName", codes.get(0).countryName());
+        }
+        page.put("swiftCodes", codes.stream().map(SwiftCodeService::toSummary).toList());
+        if (codes.size() == limit) {
+            page.put("nextCursor", codes.get(codes.size() - 1).swiftCode());
+        }
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public void requireCountry(String countryISO2) {
+        if (!repository.existsByCountryISO2(countryISO2.toUpperCase())) {
+            throw new GlobalExceptionHandler.SwiftCodeNotFoundException("No SWIFT codes found for country: " + countryISO2);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamSwiftCodesByCountry(String countryISO2, OutputStream out) throws IOException {
+        try (Stream<SwiftCodeView> codes = repository.streamViewsByCountryISO2(countryISO2.toUpperCase());
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            Iterator<SwiftCodeView> iterator = codes.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            while (iterator.hasNext()) {
+                writer.write(toSummary(iterator.next()));
+            }
+            writer.flush();
+            out.write('\n');
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void lookupSwiftCodes(List<String> swiftCodes, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            for (int from = 0; from < swiftCodes.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<String> chunk = swiftCodes.subList(from, Math.min(swiftCodes.size(), from + LOOKUP_CHUNK_SIZE));
+                for (Map<String, Object> result : resolve(chunk)) {
+                    generator.writeObject(result);
+                }
+                generator.flush();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public void checkLookup(List<String> swiftCodes) {
+        if (swiftCodes.size() > maxLookupSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxLookupSize + " SWIFT codes can be looked up in one request");
+        }
+        if (swiftCodes.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "SWIFT codes to look up must not be null");
+        }
+    }
+
+    private List<Map<String, Object>> resolve(List<String> swiftCodes) {
+        if (lookup.isEnabled()) {
+            return resolved(lookup, swiftCodes);
+        }
+        return resolved(swiftCodes, repository.findViewsWithBranchesIn(new HashSet<>(swiftCodes)));
+    }
+
+    static List<Map<String, Object>> resolved(SwiftCodeLookup lookup, List<String> swiftCodes) {
+        return swiftCodes.stream()
+                .map(swiftCode -> lookup.find(swiftCode)
+                        .map(code -> found(swiftCode, toDetails(code, code.isHeadquarter() ? lookup.branchesOf(swiftCode) : List.of())))
+                        .orElseGet(() -> notFound(swiftCode)))
+                .toList();
+    }
+
+    static List<Map<String, Object>> resolved(List<String> swiftCodes, List<SwiftCodeView> found) {
+        Map<String, SwiftCodeView> rows = new LinkedHashMap<>();
+        found.forEach(row -> rows.putIfAbsent(row.swiftCode(), row));
+        Map<String, List<SwiftCodeView>> branches = rows.values().stream()
+                .filter(row -> row.headquarterCode() != null)
+                .collect(Collectors.groupingBy(SwiftCodeView::headquarterCode));
+
+        return swiftCodes.stream()
+                .map(swiftCode -> {
+                    SwiftCodeView code = rows.get(swiftCode);
+                    if (code == null) {
+                        return notFound(swiftCode);
+                    }
+                    return found(swiftCode, toDetails(code, code.isHeadquarter() ? branches.getOrDefault(swiftCode, List.of()) : List.of()));
+                })
+                .toList();
+    }
+
+    private static Map<String, Object> found(String swiftCode, Map<String, Object> details) {
+        return Map.of("swiftCode", swiftCode, "found", true, "details", details);
+    }
+
+    private static Map<String, Object> notFound(String swiftCode) {
+        return Map.of("swiftCode", swiftCode, "found", false);
+    }
+
+    // Answered by the in-memory index alone, so no transaction is started and no connection taken.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> searchSwiftCodes(String query, String field, int fuzzy, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be empty");
+        }
+        if (fuzzy < 0 || fuzzy > MAX_SEARCH_EDITS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fuzzy must be between 0 and " + MAX_SEARCH_EDITS);
+        }
+        if (limit < 1 || limit > maxSearchLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxSearchLimit);
+        }
+        SearchField searchField;
+        try {
+            searchField = SearchField.valueOf(field.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "field must be one of code, bank, all");
+        }
+
+        List<SwiftCodeView> codes = lookup.search(query, searchField, fuzzy, limit);
+        return Map.of(
+                "query", query,
+                "swiftCodes", codes.stream().map(SwiftCodeService::toSummary).toList()
         );
     }
 
+    // Counts are kept with the in-memory snapshot and adjusted on every write, so no rows are read here.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getStats() {
+        return stats(lookup.stats());
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<String, Object> getCountryStats(String countryISO2) {
+        return countryStats(lookup.stats(), countryISO2);
+    }
+
+    static Map<String, Object> stats(DirectoryStats stats) {
+        Map<String, Object> total = counts(stats.total());
+        total.put("countries", stats.countryCount());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", total);
+        body.put("countries", stats.countries().stream().map(SwiftCodeService::counts).toList());
+        return body;
+    }
+
+    static Map<String, Object> countryStats(DirectoryStats stats, String countryISO2) {
+        return stats.country(countryISO2.toUpperCase(Locale.ROOT))
+                .map(SwiftCodeService::counts)
+                .orElseThrow(() -> new GlobalExceptionHandler.SwiftCodeNotFoundException("No SWIFT codes found for country: " + countryISO2));
+    }
+
+    private static Map<String, Object> counts(DirectoryStats.Counts counts) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (counts.countryISO2() != null) {
+            body.put("countryISO2", counts.countryISO2());
+            body.put("countryName", counts.countryName());
+        }
+        body.put("swiftCodes", counts.swiftCodes());
+        body.put("headquarters", counts.headquarters());
+        body.put("branches", counts.branches());
+        body.put("banks", counts.banks());
+        body.put("orphanBranches", counts.orphanBranches());
+        return body;
+    }
+
+    // The importer runs its own transaction; joining the request's would hold it open while the file is parsed.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SwiftCodeDeltaImporter.DeltaResult importDirectory(Resource file, boolean allowMassDelete) {
+        SwiftCodeParser parser = new SwiftCodeParser();
+        return deltaImporter.apply(sink -> parser.streamExcelFile(file, sink), allowMassDelete);
+    }
+
+    public SwiftCodeBulkWriter.BulkResult bulkWrite(List<SwiftCodeBulkWriter.Operation> operations, String mode) {
+        return bulkWriter.apply(operations, mode);
+    }
 
     public SwiftCode addSwiftCode(SwiftCode swiftCode) {
         if (repository.existsBySwiftCode(swiftCode.getSwiftCode())) {
@@ -78,8 +358,27 @@ public class SwiftCodeService {
         if (swiftCode.getSwiftCode() == null || swiftCode.getSwiftCode().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "SWIFT code cannot be empty or null");
         }
+        if (swiftCode.getSwiftCode().length() > 11) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "SWIFT code cannot be longer than 11 characters");
+        }
+        if (swiftCode.getCountryISO2() == null || swiftCode.getCountryISO2().length() != 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "countryISO2 must be a two-letter country code");
+        }
+
+        // The country table holds one name per country; a code added to a known country takes that name.
+        String countryName = countryRepository.findById(swiftCode.getCountryISO2()).map(Country::getName).orElseGet(() -> {
+            if (swiftCode.getCountryName() == null || swiftCode.getCountryName().isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "countryName is required for a new country");
+            }
+            countryRepository.insertIfAbsent(swiftCode.getCountryISO2(), swiftCode.getCountryName());
+            return swiftCode.getCountryName();
+        });
+        swiftCode.setCountryName(countryName);
 
-        return repository.save(swiftCode);
+        SwiftCode saved = repository.save(swiftCode);
+        changeFeed.record(List.of(saved.getSwiftCode()));
+        lookup.saved(SwiftCodeView.from(saved));
+        return saved;
     }
 
     public Map<String, String> deleteSwiftCode(String swiftCode, String bankName, String countryISO2) {
@@ -87,11 +386,15 @@ public class SwiftCodeService {
                 swiftCode, bankName, countryISO2.toUpperCase()
         ).orElseThrow(() -> new GlobalExceptionHandler.SwiftCodeNotFoundException("SWIFT code not found with the given details"));
 
+        List<String> deleted = new ArrayList<>(List.of(code.getSwiftCode()));
         if (code.isHeadquarter()) {
             List<SwiftCode> branches = repository.findByRelatedHeadquarterId(code.getId());
             repository.deleteAll(branches);
+            branches.forEach(branch -> deleted.add(branch.getSwiftCode()));
         }
         repository.delete(code);
+        changeFeed.record(deleted);
+        lookup.deleted(code.getSwiftCode(), deleted);
         return Map.of("message", "SWIFT code deleted successfully");
     }
 }
@@ -0,0 +1,15 @@
+-- Schema as previously created by Hibernate's ddl-auto=update. Databases created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and continue with V2.
+CREATE TABLE swift_code (
+    id                     BIGINT       NOT NULL AUTO_INCREMENT,
+    address                VARCHAR(255) NOT NULL,
+    bank_name              VARCHAR(255) NOT NULL,
+    countryiso2            VARCHAR(255) NOT NULL,
+    country_name           VARCHAR(255) NOT NULL,
+    is_headquarter         BIT          NOT NULL,
+    swift_code             VARCHAR(255) NOT NULL,
+    related_headquarter_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_swift_code_swift_code UNIQUE (swift_code),
+    CONSTRAINT fk_swift_code_headquarter FOREIGN KEY (related_headquarter_id) REFERENCES swift_code (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,22 @@
+-- Country names move to their own table, keyed by the ISO2 code every row already carries.
+CREATE TABLE country (
+    iso2 CHAR(2)      NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (iso2)
+) ENGINE = InnoDB;
+
+INSERT INTO country (iso2, name)
+SELECT countryiso2, MAX(country_name) FROM swift_code GROUP BY countryiso2;
+
+ALTER TABLE swift_code MODIFY swift_code CHAR(11) NOT NULL;
+ALTER TABLE swift_code MODIFY countryiso2 CHAR(2) NOT NULL;
+ALTER TABLE swift_code DROP COLUMN country_name;
+
+-- Country listings, cursor pages and existsByCountryISO2: equality on the country, range and order on the code.
+-- Created before the foreign key so that MySQL uses it instead of adding an index of its own.
+CREATE INDEX idx_swift_code_country ON swift_code (countryiso2, swift_code);
+ALTER TABLE swift_code ADD CONSTRAINT fk_swift_code_country FOREIGN KEY (countryiso2) REFERENCES country (iso2);
+
+-- findByRelatedHeadquarterId and the branch side of the detail queries. MySQL drops the index it created
+-- implicitly for fk_swift_code_headquarter once this one can back the constraint.
+CREATE INDEX idx_swift_code_headquarter ON swift_code (related_headquarter_id);
@@ -0,0 +1,21 @@
+-- The directory version. Every writing transaction increments the single row, so its row lock
+-- orders concurrent writers and versions become visible in sequence, without gaps.
+CREATE TABLE directory_version (
+    id      TINYINT NOT NULL,
+    version BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO directory_version (id, version) VALUES (1, 0);
+
+-- The outbox: the SWIFT codes written under each version and the node that wrote them.
+-- Other nodes read it by version range; rows older than the retention period are pruned.
+CREATE TABLE directory_change (
+    version    BIGINT      NOT NULL,
+    swift_code CHAR(11)    NOT NULL,
+    origin     VARCHAR(64) NOT NULL,
+    changed_at TIMESTAMP   NOT NULL,
+    PRIMARY KEY (version, swift_code)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_directory_change_changed_at ON directory_change (changed_at);
@@ -0,0 +1,203 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Mixed read and write load against the servlet API on the embedded database, seeded with a synthetic
+ * directory. Per-endpoint throughput and latency are compared with the baseline stored for the same mode,
+ * and the test fails when one of them is worse by more than the threshold. A missing baseline, or one
+ * recorded with other settings, fails the run as well; the results are only written as the new baseline
+ * with loadtest.update-baseline=true.
+ */
+// mvn test -Dtest=ApiLoadTest -Dloadtest=true [-Dloadtest.mode=closed|open -Dloadtest.codes=20000
+//     -Dloadtest.concurrency=32 -Dloadtest.rate=500 -Dloadtest.seconds=20 -Dloadtest.threshold=0.2
+//     -Dloadtest.update-baseline=true]
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ApiLoadTest {
+
+    private static final String MODE = System.getProperty("loadtest.mode", "closed");
+    private static final int CODES = Integer.getInteger("loadtest.codes", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 500);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 20));
+    private static final double THRESHOLD = Double.parseDouble(System.getProperty("loadtest.threshold", "0.2"));
+    private static final Path BASELINE = Path.of(System.getProperty("loadtest.baseline",
+            "src/test/resources/loadtest/baseline-" + MODE + ".json"));
+
+    private static final String BANK_NAME = "LOAD TEST BANK";
+
+    record Baseline(Map<String, Object> settings, Map<String, LoadDriver.Result> endpoints) {
+    }
+
+    @Test
+    void mixedWorkloadStaysWithinBaseline(@TempDir Path dir) throws Exception {
+        List<SwiftCode> seed = SyntheticSwiftCodes.generate(CODES, 42);
+        Path source = SyntheticSwiftCodes.writeCsv(seed, dir.resolve("directory.csv"));
+        List<SwiftCodeView> directory = SyntheticSwiftCodes.views(seed);
+
+        Map<String, LoadDriver.Result> results;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SwiftcodesApplication.class)
+                .profiles("embedded")
+                .properties(
+                        "server.port=0",
+                        "swiftcodes.import.sources=" + source.toUri(),
+                        "swiftcodes.rate-limit.enabled=false",
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port));
+            List<LoadDriver.Target> targets = targets(directory, context.getBean(ObjectMapper.class));
+            results = "open".equals(MODE)
+                    ? driver.openLoop(targets, RATE, Duration.ofSeconds(5), DURATION)
+                    : driver.closedLoop(targets, CONCURRENCY, Duration.ofSeconds(5), DURATION);
+        }
+
+        System.out.printf("%n%s loop, %,d codes, %s, %d s%n", MODE, CODES,
+                "open".equals(MODE) ? RATE + " req/s" : CONCURRENCY + " clients", DURATION.toSeconds());
+        results.values().forEach(System.out::println);
+        results.values().forEach(result -> {
+            assertTrue(result.requests() > 0, result.name());
+            assertEquals(0, result.errors(), result.name() + " had server errors");
+        });
+
+        compareWithBaseline(results);
+    }
+
+    // Reads pick a random code of the seeded directory; writes add orphan branches and delete them again.
+    static List<LoadDriver.Target> targets(List<SwiftCodeView> directory, ObjectMapper objectMapper) {
+        List<SwiftCodeView> headquarters = directory.stream().filter(SwiftCodeView::isHeadquarter).toList();
+        List<SwiftCodeView> branches = directory.stream().filter(code -> !code.isHeadquarter()).toList();
+        AtomicInteger sequence = new AtomicInteger();
+        Queue<String> added = new ConcurrentLinkedQueue<>();
+
+        List<LoadDriver.Target> targets = new ArrayList<>();
+        targets.add(new LoadDriver.Target("headquarter", 30,
+                base -> get(base, "/v1/swift-codes/" + random(headquarters).swiftCode())));
+        targets.add(new LoadDriver.Target("branch", 20,
+                base -> get(base, "/v1/swift-codes/" + random(branches).swiftCode())));
+        targets.add(new LoadDriver.Target("country-page", 15,
+                base -> get(base, "/v1/swift-codes/country/" + random(directory).countryISO2() + "?limit=50")));
+        targets.add(new LoadDriver.Target("search", 10,
+                base -> get(base, "/v1/swift-codes/search?q=" + random(directory).swiftCode().substring(0, 6))));
+        targets.add(new LoadDriver.Target("lookup", 5, base -> {
+            List<String> codes = ThreadLocalRandom.current().ints(20, 0, directory.size())
+                    .mapToObj(i -> directory.get(i).swiftCode()).toList();
+            return post(base, "/v1/swift-codes/_lookup", json(objectMapper, codes));
+        }));
+        targets.add(new LoadDriver.Target("stats", 5, base -> get(base, "/v1/swift-codes/stats")));
+        // A code is queued for deletion once its insert is sent; a delete that overtakes it gets a 404.
+        targets.add(new LoadDriver.Target("add", 8, base -> {
+            String code = String.format("LOADPL%05d", sequence.incrementAndGet() % 100_000);
+            added.add(code);
+            SwiftCode swiftCode = new SwiftCode(code, BANK_NAME, "1 LOAD STREET", "PL", "POLAND", false, null);
+            return post(base, "/v1/swift-codes", json(objectMapper, swiftCode));
+        }));
+        targets.add(new LoadDriver.Target("delete", 7, base -> {
+            String code = added.poll();
+            return HttpRequest.newBuilder(base.resolve("/v1/swift-codes/" + (code != null ? code : "LOADPLNONE")
+                    + "?bankName=" + URLEncoder.encode(BANK_NAME, StandardCharsets.UTF_8) + "&countryISO2=PL")).DELETE();
+        }));
+        return targets;
+    }
+
+    private static void compareWithBaseline(Map<String, LoadDriver.Result> results) throws Exception {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", MODE);
+        settings.put("codes", CODES);
+        settings.put("load", "open".equals(MODE) ? RATE : CONCURRENCY);
+        settings.put("seconds", (int) DURATION.toSeconds());
+
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            Files.createDirectories(BASELINE.toAbsolutePath().getParent());
+            mapper.writeValue(BASELINE.toFile(), new Baseline(settings, results));
+            System.out.println("Baseline written to " + BASELINE);
+            return;
+        }
+        if (!Files.exists(BASELINE)) {
+            fail("No baseline at " + BASELINE + "; record one with -Dloadtest.update-baseline=true");
+        }
+        Baseline stored = mapper.readValue(BASELINE.toFile(), Baseline.class);
+        if (!stored.settings().equals(settings)) {
+            fail("Baseline " + BASELINE + " was recorded with " + stored.settings() + ", this run used " + settings +
+                    "; rerun with the baseline's settings or record a new one with -Dloadtest.update-baseline=true");
+        }
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%nCompared with %s (threshold %.0f%%)%n", BASELINE, THRESHOLD * 100);
+        stored.endpoints().forEach((name, baseline) -> {
+            LoadDriver.Result current = results.get(name);
+            if (current == null) {
+                regressions.add(name + ": no longer measured");
+                return;
+            }
+            // In the open loop the request rate is fixed, so only latency can regress.
+            if (!"open".equals(MODE)) {
+                check(regressions, name, "throughput", baseline.throughput(), current.throughput(), false);
+            }
+            check(regressions, name, "p50", baseline.p50Micros(), current.p50Micros(), true);
+            check(regressions, name, "p99", baseline.p99Micros(), current.p99Micros(), true);
+        });
+        assertTrue(regressions.isEmpty(), "Regressions beyond " + THRESHOLD * 100 + "%: " + regressions);
+    }
+
+    private static void check(List<String> regressions, String name, String metric, double baseline, double current,
+                              boolean lowerIsBetter) {
+        double change = baseline == 0 ? 0 : (current - baseline) / baseline;
+        System.out.printf("%-16s %-10s baseline %,12.0f current %,12.0f %+7.1f%%%n", name, metric, baseline, current, change * 100);
+        if (lowerIsBetter ? change > THRESHOLD : change < -THRESHOLD) {
+            regressions.add(String.format("%s %s %,.0f -> %,.0f", name, metric, baseline, current));
+        }
+    }
+
+    private static HttpRequest.Builder get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET();
+    }
+
+    private static HttpRequest.Builder post(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String json(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T random(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.DirectoryChangeFeed;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.lookup.SwiftCodeSnapshotStore;
+import com.example.swiftcodes.lookup.SwiftCodeVersions;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.services.SwiftCodeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two nodes, each a full application context, sharing the test database: writes made on one reach
+ * the other's lookup and entity tags through the outbox, without reloading its snapshot.
+ */
+public class DirectoryChangeFeedTest {
+
+    private static final Duration STALENESS = Duration.ofSeconds(5);
+
+    @Test
+    void writesOnOneNodeReachTheOther() throws Exception {
+        try (ConfigurableApplicationContext a = node("a", true);
+             ConfigurableApplicationContext b = node("b", true)) {
+            SwiftCodeService writer = a.getBean(SwiftCodeService.class);
+            SwiftCodeLookup lookup = b.getBean(SwiftCodeLookup.class);
+            SwiftCodeVersions versions = b.getBean(SwiftCodeVersions.class);
+            lookup.snapshot();
+            double loads = loads(b);
+
+            String tag = versions.codeTag("FEEDUS33XXX");
+            SwiftCode hq = writer.addSwiftCode(new SwiftCode("FEEDUS33XXX", "Feed Bank", "1 Feed Street", "US", "UNITED STATES", true, null));
+            writer.addSwiftCode(new SwiftCode("FEEDUS33NYC", "Feed Bank", "2 Feed Street", "US", "UNITED STATES", false, hq));
+            await(() -> lookup.find("FEEDUS33NYC").isPresent());
+            assertEquals("FEEDUS33XXX", lookup.find("FEEDUS33NYC").orElseThrow().headquarterCode());
+            assertEquals(1, lookup.branchesOf("FEEDUS33XXX").size());
+            assertNotEquals(tag, versions.codeTag("FEEDUS33XXX"));
+
+            writer.deleteSwiftCode("FEEDUS33XXX", "Feed Bank", "US");
+            await(() -> lookup.find("FEEDUS33XXX").isEmpty() && lookup.find("FEEDUS33NYC").isEmpty());
+
+            assertEquals(loads, loads(b));
+        }
+    }
+
+    @Test
+    void prunedChangesReloadTheLookup() {
+        try (ConfigurableApplicationContext a = node("a", false);
+             ConfigurableApplicationContext b = node("b", false)) {
+            SwiftCodeService writer = a.getBean(SwiftCodeService.class);
+            SwiftCodeLookup lookup = b.getBean(SwiftCodeLookup.class);
+            lookup.snapshot();
+            double loads = loads(b);
+
+            writer.addSwiftCode(new SwiftCode("PRUNUS33XXX", "Pruned Bank", "1 Feed Street", "US", "UNITED STATES", true, null));
+            a.getBean(JdbcTemplate.class).update("DELETE FROM directory_change");
+            b.getBean(DirectoryChangeFeed.class).poll();
+
+            assertTrue(lookup.find("PRUNUS33XXX").isPresent());
+            assertEquals(loads + 1, loads(b));
+            writer.deleteSwiftCode("PRUNUS33XXX", "Pruned Bank", "US");
+        }
+    }
+
+    @Test
+    void updatesOnAnotherNodeMakeTheSnapshotFileStale(@TempDir Path dir) {
+        try (ConfigurableApplicationContext a = node("a", false)) {
+            SwiftCodeService writer = a.getBean(SwiftCodeService.class);
+            writer.addSwiftCode(new SwiftCode("SNAPUS33XXX", "Snapshot Bank", "1 Feed Street", "US", "UNITED STATES", true, null));
+
+            // Node b writes its snapshot file at startup; an update keeps the row count and the highest id.
+            try (ConfigurableApplicationContext b = node("b", false, dir.resolve("lookup.snapshot").toString())) {
+                SwiftCodeSnapshotStore store = b.getBean(SwiftCodeSnapshotStore.class);
+                assertTrue(store.restoreLookup());
+
+                new TransactionTemplate(a.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+                    a.getBean(JdbcTemplate.class).update("UPDATE swift_code SET bank_name = 'Renamed Bank' WHERE swift_code = 'SNAPUS33XXX'");
+                    a.getBean(DirectoryChangeFeed.class).record(List.of("SNAPUS33XXX"));
+                });
+
+                assertFalse(store.restoreLookup());
+            } finally {
+                String bankName = a.getBean(JdbcTemplate.class)
+                        .queryForObject("SELECT bank_name FROM swift_code WHERE swift_code = 'SNAPUS33XXX'", String.class);
+                writer.deleteSwiftCode("SNAPUS33XXX", bankName, "US");
+            }
+        }
+    }
+
+    // A node that does not poll by itself still starts from the current version; the test polls it by hand.
+    private static ConfigurableApplicationContext node(String name, boolean polling) {
+        return node(name, polling, "");
+    }
+
+    // The snapshot path is an argument, so that the embedded profile's empty path does not override it.
+    private static ConfigurableApplicationContext node(String name, boolean polling, String snapshotPath) {
+        return new SpringApplicationBuilder(SwiftcodesApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "swiftcodes.changefeed.node-id=" + name,
+                        "swiftcodes.changefeed.enabled=" + polling,
+                        "swiftcodes.changefeed.poll-interval=100ms",
+                        "spring.jpa.show-sql=false")
+                .run("--swiftcodes.snapshot.path=" + snapshotPath);
+    }
+
+    private static double loads(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).get("swiftcodes.lookup.loads").counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + STALENESS.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "change not applied within " + STALENESS);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.swiftcodes;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+public final class LoadDriver {
+
+    /** An endpoint and its share of the requests; the request is built anew for every call. */
+    public record Target(String name, int weight, Function<URI, HttpRequest.Builder> request) {
+
+        public Target(String name, String path) {
+            this(name, 1, base -> HttpRequest.newBuilder(base.resolve(path)).GET());
+        }
+    }
+
+    public record Result(String name, long requests, long errors, double throughput,
+                         long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+
+        @Override
+        public String toString() {
+            return String.format("%-16s requests=%,9d errors=%,6d throughput=%,10.0f req/s p50=%,8d us p90=%,9d us p99=%,9d us max=%,9d us",
+                    name, requests, errors, throughput, p50Micros, p90Micros, p99Micros, maxMicros);
+        }
+    }
+
+    private final HttpClient client;
+    private final URI baseUri;
+
+    public LoadDriver(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // Closed loop: each of the concurrency workers issues its next request as soon as the previous one completes.
+    public Map<String, Result> closedLoop(List<Target> targets, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        run(targets, concurrency, warmup);
+        return run(targets, concurrency, duration);
+    }
+
+    // Open loop: requests start at a fixed rate whether or not earlier ones have completed. Latency is measured
+    // from the moment a request was due, so a server that falls behind shows up as queueing delay rather than
+    // as fewer, faster requests.
+    public Map<String, Result> openLoop(List<Target> targets, int ratePerSecond, Duration warmup, Duration duration) {
+        dispatch(targets, ratePerSecond, warmup);
+        return dispatch(targets, ratePerSecond, duration);
+    }
+
+    private Map<String, Result> run(List<Target> targets, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        int[] weights = cumulativeWeights(targets);
+        List<Recorder> recorders = new ArrayList<>(concurrency);
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Recorder recorder = new Recorder(targets.size());
+                recorders.add(recorder);
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int index = pick(weights, random);
+                        recorder.record(index, send(targets.get(index), System.nanoTime()));
+                    }
+                });
+            }
+        }
+        return summarize(targets, recorders, duration);
+    }
+
+    private Map<String, Result> dispatch(List<Target> targets, int ratePerSecond, Duration duration) {
+        long interval = 1_000_000_000L / ratePerSecond;
+        long count = duration.toNanos() / interval;
+        int[] weights = cumulativeWeights(targets);
+        Recorder recorder = new Recorder(targets.size());
+
+        long start = System.nanoTime();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < count; i++) {
+                long due = start + i * interval;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int index = pick(weights, ThreadLocalRandom.current());
+                requests.submit(() -> {
+                    long micros = send(targets.get(index), due);
+                    synchronized (recorder) {
+                        recorder.record(index, micros);
+                    }
+                });
+            }
+        }
+        // Requests still running at the end are waited for, so throughput is taken over the whole run.
+        return summarize(targets, List.of(recorder), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static int[] cumulativeWeights(List<Target> targets) {
+        int[] weights = new int[targets.size()];
+        int total = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            total += targets.get(i).weight();
+            weights[i] = total;
+        }
+        return weights;
+    }
+
+    private static int pick(int[] cumulativeWeights, ThreadLocalRandom random) {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= point) {
+            index++;
+        }
+        return index;
+    }
+
+    private long send(Target target, long start) {
+        HttpRequest request = target.request().apply(baseUri)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long micros = (System.nanoTime() - start) / 1_000;
+            return response.statusCode() < 500 ? micros : -micros;
+        } catch (Exception e) {
+            return -(System.nanoTime() - start) / 1_000 - 1;
+        }
+    }
+
+    private static Map<String, Result> summarize(List<Target> targets, List<Recorder> recorders, Duration duration) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (int i = 0; i < targets.size(); i++) {
+            results.put(targets.get(i).name(), summarize(targets.get(i).name(), i, recorders, duration));
+        }
+        return results;
+    }
+
+    private static Result summarize(String name, int index, List<Recorder> recorders, Duration duration) {
+        int total = 0;
+        long errors = 0;
+        for (Recorder recorder : recorders) {
+            total += recorder.sizes[index];
+            errors += recorder.errors[index];
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Recorder recorder : recorders) {
+            System.arraycopy(recorder.latencies[index], 0, latencies, offset, recorder.sizes[index]);
+            offset += recorder.sizes[index];
+        }
+        Arrays.sort(latencies);
+        return new Result(name, total, errors, total / (duration.toMillis() / 1000.0),
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                latencies.length > 0 ? latencies[latencies.length - 1] : 0);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static final class Recorder {
+
+        private final long[][] latencies;
+        private final int[] sizes;
+        private final long[] errors;
+
+        private Recorder(int targets) {
+            latencies = new long[targets][1024];
+            sizes = new int[targets];
+            errors = new long[targets];
+        }
+
+        private void record(int index, long micros) {
+            if (micros < 0) {
+                errors[index]++;
+                micros = -micros;
+            }
+            if (sizes[index] == latencies[index].length) {
+                latencies[index] = Arrays.copyOf(latencies[index], sizes[index] * 2);
+            }
+            latencies[index][sizes[index]++] = micros;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.config.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "swiftcodes.rate-limit.enabled=true",
+        "swiftcodes.rate-limit.permits-per-second=0.5",
+        "swiftcodes.rate-limit.burst=2",
+        "swiftcodes.rate-limit.client-header=X-Api-Key"
+})
+@AutoConfigureMockMvc
+public class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testClientOverItsBurstGets429() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/v1/swift-codes/search").param("q", "AAAA").header("X-Api-Key", "burst"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "AAAA").header("X-Api-Key", "burst"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        // Other clients and endpoints outside the API are not affected.
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "AAAA").header("X-Api-Key", "other"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health").header("X-Api-Key", "burst"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testConcurrentClientsNeverExceedTheBurst() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0.001, 100, 1000);
+        AtomicInteger granted = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        granted.incrementAndGet();
+                    }
+                });
+            }
+        }
+        assertEquals(100, granted.get());
+        assertTrue(limiter.tryAcquire("shared") > 0);
+        assertEquals(0, limiter.tryAcquire("fresh"));
+    }
+
+    @Test
+    void testNewClientsShareABucketWhileNoneAreIdle() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 2, 2);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        // Both tracked clients are active: new ones are not added and take from one shared bucket.
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(0, limiter.tryAcquire("d"));
+        assertTrue(limiter.tryAcquire("e") > 0);
+
+        // Once the tracked clients are idle again, a new client gets its own bucket.
+        Thread.sleep(300);
+        assertEquals(0, limiter.tryAcquire("f"));
+        assertEquals(0, limiter.tryAcquire("f"));
+        assertTrue(limiter.tryAcquire("f") > 0);
+        assertEquals(0, limiter.tryAcquire("g"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.swiftcodes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Limit the cores both servers see (Tomcat's virtual thread scheduler, Netty's event loops, the pools) with -XX:ActiveProcessorCount:
+// mvn test -Dtest=ReactiveLoadTest -Dloadtest=true -Dloadtest.concurrency=2000 -DargLine=-XX:ActiveProcessorCount=2
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class ReactiveLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 20));
+
+    @Test
+    void compareVirtualThreadsAndReactive() throws Exception {
+        Map<String, LoadDriver.Result> servlet = runWith("virtual-threads");
+        Map<String, LoadDriver.Result> reactive = runWith("reactive");
+
+        System.out.printf("%nConcurrency %,d, %d cores, %d s per run%n",
+                CONCURRENCY, Runtime.getRuntime().availableProcessors(), DURATION.toSeconds());
+        System.out.println("-- servlet on virtual threads (JDBC)");
+        servlet.values().forEach(System.out::println);
+        System.out.println("-- reactive (R2DBC)");
+        reactive.values().forEach(System.out::println);
+
+        reactive.values().forEach(result -> assertTrue(result.requests() > 0, result.name()));
+    }
+
+    private Map<String, LoadDriver.Result> runWith(String profile) throws Exception {
+        // As in VirtualThreadLoadTest, the lookup tier is disabled so every request waits on the database;
+        // both stacks get connection pools of the same size.
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SwiftcodesApplication.class)
+                .profiles(profile)
+                .properties(
+                        "server.port=0",
+                        "swiftcodes.lookup.enabled=false",
+                        "swiftcodes.rate-limit.enabled=false",
+                        "spring.datasource.hikari.maximum-pool-size=30",
+                        "spring.r2dbc.pool.max-size=30",
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port));
+            return driver.closedLoop(VirtualThreadLoadTest.targets(context), CONCURRENCY, Duration.ofSeconds(5), DURATION);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.CountryRepository;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The reactive profile against the same database as the servlet tests, reached through R2DBC
+ * (spring.r2dbc.url). The lookup is off so that every read goes through the R2DBC repository.
+ * Profiles passed with -Dspring.profiles.active (e.g. embedded) stay active next to reactive.
+ */
+@SpringBootTest(properties = "swiftcodes.lookup.enabled=false")
+@ActiveProfiles(resolver = ReactiveSwiftCodeControllerTest.ReactiveProfiles.class)
+@AutoConfigureWebTestClient
+public class ReactiveSwiftCodeControllerTest {
+
+    // @ActiveProfiles replaces spring.profiles.active, so the profiles given on the command line are added back.
+    static class ReactiveProfiles implements ActiveProfilesResolver {
+
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            Set<String> profiles = new LinkedHashSet<>(
+                    StringUtils.commaDelimitedListToSet(System.getProperty("spring.profiles.active", "")));
+            profiles.add("reactive");
+            return profiles.toArray(String[]::new);
+        }
+    }
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private SwiftCodeRepository repository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private SwiftCodeLookup lookup;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+        countryRepository.save(new Country("US", "UNITED STATES"));
+
+        SwiftCode hq = new SwiftCode("HQ123XXX", "Test Bank HQ", "123 HQ Street", "US", "UNITED STATES", true, null);
+        SwiftCode branch = new SwiftCode("HQ123001", "Test Bank Branch", "456 Branch Street", "US", "UNITED STATES", false, hq);
+        repository.saveAll(List.of(hq, branch));
+        lookup.invalidate();
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_HQ() {
+        client.get().uri("/v1/swift-codes/HQ123XXX").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.swiftCode").isEqualTo("HQ123XXX")
+                .jsonPath("$.countryName").isEqualTo("UNITED STATES")
+                .jsonPath("$.isHeadquarter").isEqualTo(true)
+                .jsonPath("$.branches[0].swiftCode").isEqualTo("HQ123001");
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_NotFound() {
+        client.get().uri("/v1/swift-codes/INVALID123").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("SWIFT code not found: INVALID123");
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_ConditionalGet() {
+        String etag = client.get().uri("/v1/swift-codes/HQ123XXX").exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class).getResponseHeaders().getETag();
+
+        client.get().uri("/v1/swift-codes/HQ123XXX").header("If-None-Match", etag).exchange()
+                .expectStatus().isNotModified();
+
+        client.delete().uri("/v1/swift-codes/HQ123001?bankName=Test Bank Branch&countryISO2=US").exchange()
+                .expectStatus().isOk();
+
+        client.get().uri("/v1/swift-codes/HQ123XXX").header("If-None-Match", etag).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.branches.length()").isEqualTo(0);
+    }
+
+    @Test
+    void testGetSwiftCodesByCountry() {
+        client.get().uri("/v1/swift-codes/country/us").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.countryISO2").isEqualTo("US")
+                .jsonPath("$.countryName").isEqualTo("UNITED STATES")
+                .jsonPath("$.swiftCodes.length()").isEqualTo(2);
+
+        client.get().uri("/v1/swift-codes/country/US?limit=1&after=HQ123001").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.swiftCodes[0].swiftCode").isEqualTo("HQ123XXX")
+                .jsonPath("$.nextCursor").isEqualTo("HQ123XXX");
+    }
+
+    @Test
+    void testStats() {
+        client.get().uri("/v1/swift-codes/stats").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total.swiftCodes").isEqualTo(2)
+                .jsonPath("$.total.headquarters").isEqualTo(1)
+                .jsonPath("$.countries[0].countryISO2").isEqualTo("US");
+        client.get().uri("/v1/swift-codes/stats/PL").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testStreamSwiftCodesByCountry() {
+        List<String> codes = client.get().uri("/v1/swift-codes/country/US").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(Map.class).getResponseBody()
+                .map(code -> (String) code.get("swiftCode"))
+                .collectList().block();
+        assertEquals(List.of("HQ123001", "HQ123XXX"), codes);
+
+        client.get().uri("/v1/swift-codes/country/INVALID").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testLookupSwiftCodes() {
+        client.post().uri("/v1/swift-codes/_lookup").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("HQ123001", "MISSING", "HQ123XXX")).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].details.bankName").isEqualTo("Test Bank Branch")
+                .jsonPath("$[1].found").isEqualTo(false)
+                .jsonPath("$[2].details.branches.length()").isEqualTo(1);
+
+        client.post().uri("/v1/swift-codes/_lookup").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[\"HQ123001\", null]").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testAddSwiftCode() {
+        SwiftCode code = new SwiftCode("NEW12345XXX", "New Bank", "1 New Street", "US", null, true, null);
+        client.post().uri("/v1/swift-codes").contentType(MediaType.APPLICATION_JSON).bodyValue(code).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.countryName").isEqualTo("UNITED STATES");
+
+        client.get().uri("/v1/swift-codes/NEW12345XXX").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.bankName").isEqualTo("New Bank");
+    }
+
+    @Test
+    void testBulkWrite() {
+        List<Map<String, Object>> operations = List.of(
+                Map.of("op", "insert", "swiftCode", "BULKUS33XXX", "bankName", "Bulk Bank", "address", "1 Bulk Street", "countryISO2", "US"),
+                Map.of("op", "delete", "swiftCode", "HQ123XXX", "bankName", "Test Bank HQ", "countryISO2", "US"));
+        client.post().uri("/v1/swift-codes/_bulk").contentType(MediaType.APPLICATION_JSON).bodyValue(operations).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.inserted").isEqualTo(1)
+                .jsonPath("$.deleted").isEqualTo(1);
+
+        client.get().uri("/v1/swift-codes/HQ123001").exchange()
+                .expectStatus().isNotFound();
+    }
+}
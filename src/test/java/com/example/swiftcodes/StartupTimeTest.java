@@ -0,0 +1,125 @@
+package com.example.swiftcodes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time from launching the application in a new JVM until the server answers at all, until it reports
+ * ready and until the first directory request succeeds, with the default and the fast-start profile.
+ * Each run starts on an empty in-memory database, so the bundled directory is imported every time.
+ */
+// mvn test -Dtest=StartupTimeTest -Dstartuptest=true [-Dstartuptest.runs=3]
+@EnabledIfSystemProperty(named = "startuptest", matches = "true")
+public class StartupTimeTest {
+
+    private static final int RUNS = Integer.getInteger("startuptest.runs", 3);
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    record Timing(String profile, long firstResponseMillis, long readyMillis, long firstDataMillis) {
+        @Override
+        public String toString() {
+            return String.format("%-12s first response %,6d ms   ready %,6d ms   first data %,6d ms",
+                    profile, firstResponseMillis, readyMillis, firstDataMillis);
+        }
+    }
+
+    @Test
+    void compareDefaultAndFastStart() throws Exception {
+        List<Timing> timings = new ArrayList<>();
+        for (int run = 0; run < RUNS; run++) {
+            timings.add(measure("default", run));
+            timings.add(measure("fast-start", run));
+        }
+
+        System.out.println();
+        timings.forEach(System.out::println);
+        timings.forEach(timing -> assertTrue(timing.firstDataMillis() > 0, timing.profile()));
+    }
+
+    private Timing measure(String profile, int run) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        URI base = URI.create("http://localhost:" + port);
+        String database = "startup_" + profile.replace('-', '_') + "_" + run;
+
+        long start = System.nanoTime();
+        // Own threads rather than the common pool, which may have a single worker on a small machine.
+        try (ExecutorService probes = Executors.newFixedThreadPool(3)) {
+            Future<Long> firstResponse = probes.submit(() -> firstStatus(base.resolve("/actuator/health/liveness"), -1, start));
+            Future<Long> ready = probes.submit(() -> firstStatus(base.resolve("/actuator/health/readiness"), 200, start));
+            Future<Long> firstData = probes.submit(() -> firstStatus(base.resolve("/v1/swift-codes/country/PL?limit=1"), 200, start));
+            return launch(profile, port, database, start, firstResponse, ready, firstData);
+        }
+    }
+
+    // A new JVM per run: started in this one, every context after the first would find its classes loaded and compiled.
+    private static Timing launch(String profile, int port, String database, long start,
+                                 Future<Long> firstResponse, Future<Long> ready, Future<Long> firstData) throws Exception {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"))));
+        command.addAll(List.of(SwiftcodesApplication.class.getName(),
+                "--spring.profiles.active=" + profile,
+                "--server.port=" + port,
+                "--spring.datasource.url=" + System.getProperty("spring.datasource.url", "jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1"),
+                "--spring.datasource.driver-class-name=" + System.getProperty("spring.datasource.driver-class-name", "org.h2.Driver"),
+                "--spring.datasource.username=" + System.getProperty("spring.datasource.username", "sa"),
+                "--spring.datasource.password=" + System.getProperty("spring.datasource.password", ""),
+                "--spring.jpa.database-platform=" + System.getProperty("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect"),
+                "--management.endpoint.health.probes.enabled=true",
+                "--swiftcodes.snapshot.path=",
+                "--swiftcodes.rate-limit.enabled=false",
+                "--spring.jpa.show-sql=false"));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target", database + ".log").toFile())
+                .start();
+        try {
+            return new Timing(profile, firstResponse.get(), ready.get(), firstData.get());
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    // Milliseconds since start until the URI answers with the given status (-1: any status).
+    private static long firstStatus(URI uri, int status, long start) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).build();
+        long deadline = start + TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                int answered = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == -1 || answered == status) {
+                    return (System.nanoTime() - start) / 1_000_000;
+                }
+            } catch (Exception e) {
+                // not listening yet
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
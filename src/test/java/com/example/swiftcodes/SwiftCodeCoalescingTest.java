@@ -0,0 +1,177 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.lookup.SwiftCodeVersions;
+import com.example.swiftcodes.models.Country;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.CountryRepository;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import com.example.swiftcodes.services.SwiftCodeResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "swiftcodes.lookup.enabled=false",
+        "swiftcodes.rate-limit.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+public class SwiftCodeCoalescingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SwiftCodeRepository repository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SwiftCodeLookup lookup;
+
+    @Autowired
+    private SwiftCodeVersions versions;
+
+    @Autowired
+    private SwiftCodeResponseCache responseCache;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+        countryRepository.save(new Country("PL", "POLAND"));
+
+        SwiftCode hq = new SwiftCode("HOTCPLPWXXX", "Hot Bank HQ", "1 HQ Street", "PL", "POLAND", true, null);
+        SwiftCode branch = new SwiftCode("HOTCPLPW001", "Hot Bank Branch", "2 Branch Street", "PL", "POLAND", false, hq);
+        repository.saveAll(List.of(hq, branch));
+    }
+
+    // Each round changes the tag, as a write would, and then sends every request for the same code at once.
+    @Test
+    void testQueryCountStaysFlatAsConcurrencyGrows() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int concurrency : new int[]{1, 10, 100, 500}) {
+            lookup.invalidate();
+            statistics.clear();
+
+            concurrently(concurrency, () -> mockMvc.perform(get("/v1/swift-codes/HOTCPLPWXXX")).andExpect(status().isOk()));
+
+            System.out.printf("concurrency %3d: %d statements%n", concurrency, statistics.getPrepareStatementCount());
+            assertEquals(1, statistics.getPrepareStatementCount(), "statements at concurrency " + concurrency);
+        }
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        SwiftCodeResponseCache cache = new SwiftCodeResponseCache(new ObjectMapper(), lookup, 1 << 20, 100, 1024);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<SwiftCodeResponseCache.Body> bodies = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<SwiftCodeResponseCache.Body>> calls = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                calls.add(executor.submit(() -> cache.detail("HOTCPLPWXXX", "v1", () -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(release);
+                    return Map.of("swiftCode", "HOTCPLPWXXX");
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<SwiftCodeResponseCache.Body> call : calls) {
+                bodies.add(call.get());
+            }
+        }
+
+        assertEquals(1, loads.get());
+        bodies.forEach(body -> assertSame(bodies.get(0), body));
+    }
+
+    @Test
+    void testDetailsAreEvictedLeastRecentlyUsed() throws Exception {
+        SwiftCodeResponseCache cache = new SwiftCodeResponseCache(new ObjectMapper(), lookup, 1 << 20, 2, 1024);
+        cache.detail("AAAAPLPWXXX", "v1", () -> Map.of("swiftCode", "AAAAPLPWXXX"));
+        cache.detail("BBBBPLPWXXX", "v1", () -> Map.of("swiftCode", "BBBBPLPWXXX"));
+        cache.cachedDetail("AAAAPLPWXXX", "v1");
+
+        // A new code is still cached when the cache is full; the least recently used one makes room.
+        cache.detail("CCCCPLPWXXX", "v1", () -> Map.of("swiftCode", "CCCCPLPWXXX"));
+        assertNotNull(cache.cachedDetail("CCCCPLPWXXX", "v1"));
+        assertNotNull(cache.cachedDetail("AAAAPLPWXXX", "v1"));
+        assertNull(cache.cachedDetail("BBBBPLPWXXX", "v1"));
+    }
+
+    @Test
+    void testDeletedCodesAreDropped() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/HOTCPLPWXXX")).andExpect(status().isOk());
+        mockMvc.perform(get("/v1/swift-codes/HOTCPLPW001")).andExpect(status().isOk());
+        String headquarterTag = versions.codeTag("HOTCPLPWXXX");
+        String branchTag = versions.codeTag("HOTCPLPW001");
+        assertNotNull(responseCache.cachedDetail("HOTCPLPWXXX", headquarterTag));
+        assertNotNull(responseCache.cachedDetail("HOTCPLPW001", branchTag));
+
+        mockMvc.perform(delete("/v1/swift-codes/HOTCPLPWXXX").param("bankName", "Hot Bank HQ").param("countryISO2", "PL"))
+                .andExpect(status().isOk());
+        assertNull(responseCache.cachedDetail("HOTCPLPWXXX", headquarterTag));
+        assertNull(responseCache.cachedDetail("HOTCPLPW001", branchTag));
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private static void concurrently(int threads, Call call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    call.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : calls) {
+                future.get();
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.swiftcodes;
 
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
 import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.CountryRepository;
 import com.example.swiftcodes.repositories.SwiftCodeRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,10 +13,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -27,12 +36,19 @@ public class SwiftCodeControllerTest {
     @Autowired
     private SwiftCodeRepository repository;
 
+    @Autowired
+    private CountryRepository countryRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SwiftCodeLookup lookup;
+
     @BeforeEach
     void setup() {
         repository.deleteAll();
+        countryRepository.save(new Country("US", "UNITED STATES"));
 
         SwiftCode hq = new SwiftCode(
                 "HQ123XXX",
@@ -55,6 +71,7 @@ public class SwiftCodeControllerTest {
         );
 
         repository.saveAll(List.of(hq, branch));
+        lookup.invalidate();
     }
 
     @Test
@@ -96,6 +113,91 @@ public class SwiftCodeControllerTest {
                 .andExpect(jsonPath("$.swiftCodes[*].swiftCode", containsInAnyOrder("HQ123XXX", "HQ123001")));
     }
 
+    @Test
+    void testGetSwiftCodeDetails_ConditionalGet() throws Exception {
+        String etag = mockMvc.perform(get("/v1/swift-codes/HQ123XXX"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/v1/swift-codes/HQ123XXX").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        // Removing a branch changes the headquarter's body, so its tag must change too.
+        mockMvc.perform(delete("/v1/swift-codes/HQ123001")
+                        .param("bankName", "Test Bank Branch")
+                        .param("countryISO2", "US"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/swift-codes/HQ123XXX").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.branches", hasSize(0)));
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_Gzip() throws Exception {
+        SwiftCode hq = repository.findBySwiftCode("HQ123XXX").orElseThrow();
+        List<SwiftCode> branches = new ArrayList<>();
+        for (int i = 2; i < 40; i++) {
+            branches.add(new SwiftCode(String.format("HQ123%03d", i), "Test Bank Branch",
+                    i + " Branch Street, Financial District", "US", "UNITED STATES", false, hq));
+        }
+        repository.saveAll(branches);
+        lookup.invalidate();
+
+        String identity = mockMvc.perform(get("/v1/swift-codes/HQ123XXX"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult gzipped = mockMvc.perform(get("/v1/swift-codes/HQ123XXX").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn();
+        byte[] compressed = gzipped.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(identity, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // A cached identity body must not be revalidated by the gzip tag and vice versa.
+        String gzipTag = gzipped.getResponse().getHeader("ETag");
+        mockMvc.perform(get("/v1/swift-codes/HQ123XXX").header("If-None-Match", gzipTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/swift-codes/HQ123XXX").header("If-None-Match", gzipTag).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_SmallBodyNotGzipped() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/HQ123001").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.swiftCode").value("HQ123001"));
+    }
+
+    @Test
+    void testGetSwiftCodesByCountry_ConditionalGet() throws Exception {
+        String etag = mockMvc.perform(get("/v1/swift-codes/country/us"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(2)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/v1/swift-codes/HQ123001")
+                        .param("bankName", "Test Bank Branch")
+                        .param("countryISO2", "US"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(1)));
+    }
+
     @Test
     void testGetSwiftCodesByCountry_NotFound() throws Exception {
         mockMvc.perform(get("/v1/swift-codes/country/INVALID"))
@@ -103,6 +205,162 @@ public class SwiftCodeControllerTest {
                 .andExpect(jsonPath("$.message").value("No SWIFT codes found for country: INVALID"));
     }
 
+    @Test
+    void testGetSwiftCodesByCountry_Paginated() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(1)))
+                .andExpect(jsonPath("$.swiftCodes[0].swiftCode").value("HQ123001"))
+                .andExpect(jsonPath("$.nextCursor").value("HQ123001"));
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "1").param("after", "HQ123001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(1)))
+                .andExpect(jsonPath("$.swiftCodes[0].swiftCode").value("HQ123XXX"))
+                .andExpect(jsonPath("$.nextCursor").value("HQ123XXX"));
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "1").param("after", "HQ123XXX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetSwiftCodesByCountry_InvalidLimit() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamSwiftCodesByCountry() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/swift-codes/country/US").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("HQ123001", objectMapper.readTree(lines.get(0)).get("swiftCode").asText());
+        assertEquals("HQ123XXX", objectMapper.readTree(lines.get(1)).get("swiftCode").asText());
+    }
+
+    @Test
+    void testStreamSwiftCodesByCountry_NotFound() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/country/INVALID").accept("application/x-ndjson"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testLookupSwiftCodes() throws Exception {
+        MvcResult result = mockMvc.perform(post("/v1/swift-codes/_lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"HQ123XXX\", \"MISSING0XXX\", \"HQ123001\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].swiftCode").value("HQ123XXX"))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].details.branches", hasSize(1)))
+                .andExpect(jsonPath("$[1].swiftCode").value("MISSING0XXX"))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[2].details.isHeadquarter").value(false));
+    }
+
+    @Test
+    void testLookupSwiftCodes_NullCode() throws Exception {
+        mockMvc.perform(post("/v1/swift-codes/_lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"HQ123XXX\", null]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchSwiftCodes_CodePrefix() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "hq123").param("field", "code"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(2)))
+                .andExpect(jsonPath("$.swiftCodes[0].swiftCode").value("HQ123001"))
+                .andExpect(jsonPath("$.swiftCodes[1].swiftCode").value("HQ123XXX"));
+    }
+
+    @Test
+    void testSearchSwiftCodes_BankNameWithTypo() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "tesr bank bra").param("fuzzy", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(1)))
+                .andExpect(jsonPath("$.swiftCodes[0].swiftCode").value("HQ123001"));
+
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "tesr bank bra"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(0)));
+    }
+
+    @Test
+    void testSearchSwiftCodes_FollowsWrites() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "HQ123"))
+                .andExpect(jsonPath("$.swiftCodes", hasSize(2)));
+
+        mockMvc.perform(delete("/v1/swift-codes/HQ123XXX")
+                        .param("bankName", "Test Bank HQ")
+                        .param("countryISO2", "US"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "HQ123"))
+                .andExpect(jsonPath("$.swiftCodes", hasSize(0)));
+    }
+
+    @Test
+    void testSearchSwiftCodes_InvalidParameters() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "HQ").param("fuzzy", "3"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/swift-codes/search").param("q", "HQ").param("field", "address"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStats_FollowsWrites() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.swiftCodes").value(2))
+                .andExpect(jsonPath("$.total.headquarters").value(1))
+                .andExpect(jsonPath("$.total.branches").value(1))
+                .andExpect(jsonPath("$.total.banks").value(2))
+                .andExpect(jsonPath("$.total.orphanBranches").value(0))
+                .andExpect(jsonPath("$.total.countries").value(1))
+                .andExpect(jsonPath("$.countries[0].countryISO2").value("US"))
+                .andExpect(jsonPath("$.countries[0].countryName").value("UNITED STATES"));
+
+        SwiftCode orphan = new SwiftCode("ORPHGB22LDN", "Orphan Bank", "1 Orphan Street", "GB", "UNITED KINGDOM", false, null);
+        mockMvc.perform(post("/v1/swift-codes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orphan)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/swift-codes/stats/gb"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes").value(1))
+                .andExpect(jsonPath("$.branches").value(1))
+                .andExpect(jsonPath("$.orphanBranches").value(1));
+
+        mockMvc.perform(delete("/v1/swift-codes/HQ123XXX")
+                        .param("bankName", "Test Bank HQ")
+                        .param("countryISO2", "US"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/swift-codes/stats"))
+                .andExpect(jsonPath("$.total.swiftCodes").value(1))
+                .andExpect(jsonPath("$.total.orphanBranches").value(1))
+                .andExpect(jsonPath("$.countries[*].countryISO2").value(contains("GB")));
+        mockMvc.perform(get("/v1/swift-codes/stats/US"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testAddSwiftCode() throws Exception {
         SwiftCode newCode = new SwiftCode(
@@ -237,4 +495,79 @@ public class SwiftCodeControllerTest {
                         .content(invalidPayload))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void testBulkWrite_InsertLinksBranchesAndDeletes() throws Exception {
+        String operations = """
+    [
+        {"op": "insert", "swiftCode": "BULKUS33NYC", "bankName": "Bulk Bank", "address": "2 Bulk Street", "countryISO2": "US"},
+        {"op": "insert", "swiftCode": "BULKUS33XXX", "bankName": "Bulk Bank", "address": "1 Bulk Street", "countryISO2": "US"},
+        {"op": "delete", "swiftCode": "HQ123001", "bankName": "Test Bank Branch", "countryISO2": "US"},
+        {"op": "insert", "swiftCode": "BULKDE33XXX", "bankName": "Bulk Bank DE", "address": "3 Bulk Street", "countryISO2": "DE", "countryName": "GERMANY"}
+    ]
+    """;
+
+        mockMvc.perform(post("/v1/swift-codes/_bulk").contentType(MediaType.APPLICATION_JSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(true))
+                .andExpect(jsonPath("$.inserted").value(3))
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.results[*].status").value(contains("inserted", "inserted", "deleted", "inserted")));
+
+        mockMvc.perform(get("/v1/swift-codes/BULKUS33XXX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isHeadquarter").value(true))
+                .andExpect(jsonPath("$.branches[0].swiftCode").value("BULKUS33NYC"));
+        mockMvc.perform(get("/v1/swift-codes/HQ123001"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/v1/swift-codes/BULKDE33XXX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.countryName").value("GERMANY"));
+    }
+
+    @Test
+    void testBulkWrite_DeleteHeadquarterRemovesBranches() throws Exception {
+        String operations = """
+    [{"op": "delete", "swiftCode": "HQ123XXX", "bankName": "Test Bank HQ", "countryISO2": "us"}]
+    """;
+
+        mockMvc.perform(post("/v1/swift-codes/_bulk").contentType(MediaType.APPLICATION_JSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].message").value("Deleted with 1 branches"));
+
+        assertEquals(0, repository.count());
+        mockMvc.perform(get("/v1/swift-codes/HQ123001"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBulkWrite_AllOrNothingWritesNothingOnFailure() throws Exception {
+        String operations = """
+    [
+        {"op": "insert", "swiftCode": "BULKUS33XXX", "bankName": "Bulk Bank", "address": "1 Bulk Street", "countryISO2": "US"},
+        {"op": "insert", "swiftCode": "HQ123XXX", "bankName": "Duplicate", "address": "1 Bulk Street", "countryISO2": "US"},
+        {"op": "delete", "swiftCode": "MISSING1XXX", "bankName": "Nobody", "countryISO2": "US"},
+        {"op": "update", "swiftCode": "HQ123001"}
+    ]
+    """;
+
+        mockMvc.perform(post("/v1/swift-codes/_bulk").contentType(MediaType.APPLICATION_JSON).content(operations))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.applied").value(false))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[*].status").value(contains("skipped", "conflict", "not_found", "invalid")));
+
+        mockMvc.perform(get("/v1/swift-codes/BULKUS33XXX"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/v1/swift-codes/_bulk").param("mode", "best-effort")
+                        .contentType(MediaType.APPLICATION_JSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].status").value("inserted"));
+
+        mockMvc.perform(get("/v1/swift-codes/BULKUS33XXX"))
+                .andExpect(status().isOk());
+    }
 }
@@ -0,0 +1,212 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.initializer.SwiftCodeBulkLoader;
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeParser;
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+public class SwiftCodeDeltaImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SwiftCodeBulkLoader bulkLoader;
+
+    @Autowired
+    private SwiftCodeRepository repository;
+
+    @Autowired
+    private SwiftCodeLookup lookup;
+
+    @TempDir
+    Path tempDir;
+
+    private List<SwiftCode> base;
+
+    @BeforeEach
+    void setup() throws Exception {
+        jdbcTemplate.update("UPDATE swift_code SET related_headquarter_id = NULL");
+        jdbcTemplate.update("DELETE FROM swift_code");
+
+        base = SyntheticSwiftCodes.generate(2_000, 7);
+        Path workbook = SyntheticSwiftCodes.writeWorkbook(base, tempDir.resolve("base.xlsx"));
+        bulkLoader.load(sink -> new SwiftCodeParser().streamExcelFile(new FileSystemResource(workbook), sink));
+        lookup.invalidate();
+        lookup.snapshot();
+    }
+
+    @Test
+    void testImportAppliesOnlyTheDelta() throws Exception {
+        List<SwiftCode> next = new ArrayList<>(base);
+
+        // A headquarter disappears while its branches stay, one branch is closed and one bank renamed.
+        SwiftCode removedHeadquarter = base.stream()
+                .filter(code -> code.isHeadquarter() && hasBranches(code))
+                .findFirst().orElseThrow();
+        next.remove(removedHeadquarter);
+        SwiftCode removedBranch = base.stream()
+                .filter(code -> !code.isHeadquarter() && !code.getSwiftCode().startsWith(prefix(removedHeadquarter)))
+                .findFirst().orElseThrow();
+        next.remove(removedBranch);
+        SwiftCode renamed = base.get(base.size() - 1);
+        next.set(next.indexOf(renamed), new SwiftCode(renamed.getSwiftCode(), "RENAMED BANK", renamed.getAddress(),
+                renamed.getCountryISO2(), renamed.getCountryName(), renamed.isHeadquarter(), null));
+        SwiftCode newHeadquarter = new SwiftCode("NEWBPLPWXXX", "NEW BANK", "1 NEW STREET", "PL", "POLAND", true, null);
+        SwiftCode newBranch = new SwiftCode("NEWBPLPW001", "NEW BANK", "2 NEW STREET", "PL", "POLAND", false, null);
+        next.add(newHeadquarter);
+        next.add(newBranch);
+
+        Path workbook = SyntheticSwiftCodes.writeWorkbook(next, tempDir.resolve("next.xlsx"));
+        MockMultipartFile file = new MockMultipartFile("file", "next.xlsx", null, Files.readAllBytes(workbook));
+        mockMvc.perform(multipart("/v1/swift-codes/_import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.unchanged").value(next.size() - 3));
+
+        Map<String, SwiftCodeView> stored = repository.findAllViews().stream()
+                .collect(Collectors.toMap(SwiftCodeView::swiftCode, Function.identity()));
+        assertEquals(next.size(), stored.size());
+        assertEquals("NEWBPLPWXXX", stored.get("NEWBPLPW001").headquarterCode());
+        assertEquals("RENAMED BANK", stored.get(renamed.getSwiftCode()).bankName());
+        assertFalse(stored.containsKey(removedBranch.getSwiftCode()));
+        assertTrue(stored.values().stream()
+                .filter(view -> view.swiftCode().startsWith(prefix(removedHeadquarter)))
+                .allMatch(view -> view.headquarterCode() == null));
+
+        // The patched lookup snapshot must match a fresh load of the table.
+        assertEquals(new HashSet<>(stored.values()), new HashSet<>(lookup.snapshot().all()));
+    }
+
+    @Test
+    void testImportOfSameFileChangesNothing() throws Exception {
+        Path workbook = SyntheticSwiftCodes.writeWorkbook(base, tempDir.resolve("same.xlsx"));
+        MockMultipartFile file = new MockMultipartFile("file", "same.xlsx", null, Files.readAllBytes(workbook));
+        mockMvc.perform(multipart("/v1/swift-codes/_import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(0))
+                .andExpect(jsonPath("$.updated").value(0))
+                .andExpect(jsonPath("$.deleted").value(0))
+                .andExpect(jsonPath("$.relinkedPrefixes").value(0));
+    }
+
+    @Test
+    void testImportThatDeletesMostCodesIsRefusedUnlessAllowed() throws Exception {
+        List<SwiftCode> truncated = base.subList(0, 100);
+        Path workbook = SyntheticSwiftCodes.writeWorkbook(truncated, tempDir.resolve("truncated.xlsx"));
+        MockMultipartFile file = new MockMultipartFile("file", "truncated.xlsx", null, Files.readAllBytes(workbook));
+
+        mockMvc.perform(multipart("/v1/swift-codes/_import").file(file))
+                .andExpect(status().isUnprocessableEntity());
+        assertEquals(base.size(), repository.count());
+        assertEquals(base.size(), lookup.snapshot().size());
+
+        mockMvc.perform(multipart("/v1/swift-codes/_import").file(file).param("allowMassDelete", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(base.size() - truncated.size()));
+        assertEquals(truncated.size(), repository.count());
+    }
+
+    @Test
+    void testImportOfEmptyFileIsRefused() throws Exception {
+        Path workbook = SyntheticSwiftCodes.writeWorkbook(List.of(), tempDir.resolve("empty.xlsx"));
+        MockMultipartFile file = new MockMultipartFile("file", "empty.xlsx", null, Files.readAllBytes(workbook));
+
+        mockMvc.perform(multipart("/v1/swift-codes/_import").file(file))
+                .andExpect(status().isUnprocessableEntity());
+        assertEquals(base.size(), repository.count());
+    }
+
+    // MockMvc skips multipart parsing, so the upload limits are only enforced over a real connection.
+    @Test
+    void testImportOfFileLargerThanDefaultUploadLimit() throws Exception {
+        List<SwiftCode> large = SyntheticSwiftCodes.generate(40_000, 11);
+        Path workbook = SyntheticSwiftCodes.writeWorkbook(large, tempDir.resolve("large.xlsx"));
+        assertTrue(Files.size(workbook) > 1024 * 1024, "workbook of " + Files.size(workbook) + " bytes");
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new FileSystemResource(workbook));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        ResponseEntity<Map> response = restTemplate.postForEntity("/v1/swift-codes/_import?allowMassDelete=true",
+                new HttpEntity<>(body, headers), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(large.size(), repository.count());
+    }
+
+    @Test
+    void testBulkLoadLinksBranchesInOneStatement() {
+        jdbcTemplate.update("UPDATE swift_code SET related_headquarter_id = NULL");
+        jdbcTemplate.update("DELETE FROM swift_code");
+
+        // A headquarter code shorter than the 8-character prefix must not break the load.
+        List<SwiftCode> codes = List.of(
+                new SwiftCode("LINKPLPWXXX", "LINK BANK", "1 LINK STREET", "PL", "POLAND", true, null),
+                new SwiftCode("LINKPLPW001", "LINK BANK", "2 LINK STREET", "PL", "POLAND", false, null),
+                new SwiftCode("LINKPLPW002", "LINK BANK", "3 LINK STREET", "PL", "POLAND", false, null),
+                new SwiftCode("SHRTXXX", "SHORT BANK", "4 LINK STREET", "PL", "POLAND", true, null),
+                new SwiftCode("ORPHPLPW001", "ORPHAN BANK", "5 LINK STREET", "PL", "POLAND", false, null));
+        SwiftCodeBulkLoader.ImportResult result = bulkLoader.load(sink -> codes.forEach(sink));
+
+        assertEquals(5, result.rows());
+        assertEquals(2, result.linkedBranches());
+        Map<String, SwiftCodeView> stored = repository.findAllViews().stream()
+                .collect(Collectors.toMap(SwiftCodeView::swiftCode, Function.identity()));
+        assertEquals("LINKPLPWXXX", stored.get("LINKPLPW001").headquarterCode());
+        assertEquals("LINKPLPWXXX", stored.get("LINKPLPW002").headquarterCode());
+        assertNull(stored.get("ORPHPLPW001").headquarterCode());
+        assertNull(stored.get("SHRTXXX").headquarterCode());
+    }
+
+    private boolean hasBranches(SwiftCode headquarter) {
+        return base.stream().anyMatch(code -> !code.isHeadquarter() && code.getSwiftCode().startsWith(prefix(headquarter)));
+    }
+
+    private static String prefix(SwiftCode code) {
+        return code.getSwiftCode().substring(0, 8);
+    }
+}
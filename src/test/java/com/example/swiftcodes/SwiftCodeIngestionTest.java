@@ -0,0 +1,77 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.initializer.SwiftCodeIngestion;
+import com.example.swiftcodes.models.SwiftCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SwiftCodeIngestionTest {
+
+    @Test
+    void testParallelIngestionMatchesSequentialParse(@TempDir Path dir) throws Exception {
+        List<SwiftCode> generated = SyntheticSwiftCodes.generate(6_000, 11);
+        List<SwiftCode> first = generated.subList(0, 2_000);
+        List<SwiftCode> second = generated.subList(2_000, 3_500);
+        List<SwiftCode> third = generated.subList(3_500, 4_500);
+        List<SwiftCode> csv = new ArrayList<>(generated.subList(4_500, 6_000));
+        // Feeds overlap in practice; the copy in the later source is dropped.
+        csv.add(generated.get(0));
+        csv.set(0, new SwiftCode(csv.get(0).getSwiftCode().toLowerCase(), "BANK \"QUOTED\", S.A.", " 1 MAIN STREET ",
+                "pl", "poland", false, null));
+
+        List<Resource> resources = List.of(
+                new FileSystemResource(SyntheticSwiftCodes.writeSheets(List.of(first, second), dir.resolve("europe.xlsx"))),
+                new FileSystemResource(SyntheticSwiftCodes.writeWorkbook(third, dir.resolve("americas.xlsx"))),
+                new FileSystemResource(SyntheticSwiftCodes.writeCsv(csv, dir.resolve("asia.csv"))));
+
+        SwiftCodeIngestion.Result result = new SwiftCodeIngestion(4).ingest(resources);
+
+        List<SwiftCode> expected = new ArrayList<>(generated.subList(0, 4_500));
+        SwiftCode normalized = new SwiftCode(csv.get(0).getSwiftCode().toUpperCase(), "BANK \"QUOTED\", S.A.", "1 MAIN STREET",
+                "PL", "POLAND", false, null);
+        normalized.setHeadquarter(normalized.getSwiftCode().endsWith("XXX"));
+        expected.add(normalized);
+        expected.addAll(generated.subList(4_501, 6_000));
+
+        assertEquals(4, result.parts());
+        assertEquals(1, result.duplicates());
+        assertEquals(expected, result.codes());
+    }
+
+    // mvn test -Dtest=SwiftCodeIngestionTest -Dingestion.scaling=true [-Dingestion.scaling.files=8] [-Dingestion.scaling.rows=1000000]
+    @Test
+    @EnabledIfSystemProperty(named = "ingestion.scaling", matches = "true")
+    void measureScalingWithThreads(@TempDir Path dir) throws Exception {
+        int files = Integer.getInteger("ingestion.scaling.files", 8);
+        int rows = Integer.getInteger("ingestion.scaling.rows", 1_000_000);
+        List<SwiftCode> generated = SyntheticSwiftCodes.generate(rows, 42);
+        List<Resource> resources = new ArrayList<>();
+        int perFile = rows / files;
+        for (int i = 0; i < files; i++) {
+            List<SwiftCode> part = generated.subList(i * perFile, i == files - 1 ? rows : (i + 1) * perFile);
+            Path file = i % 4 == 3
+                    ? SyntheticSwiftCodes.writeCsv(part, dir.resolve("feed-" + i + ".csv"))
+                    : SyntheticSwiftCodes.writeSheets(List.of(part.subList(0, part.size() / 2), part.subList(part.size() / 2, part.size())),
+                    dir.resolve("feed-" + i + ".xlsx"));
+            resources.add(new FileSystemResource(file));
+        }
+
+        // threads=1 is the sequential baseline; the first round also warms up the JIT, so it is run twice.
+        new SwiftCodeIngestion(1).ingest(resources);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= Math.max(8, cores); threads *= 2) {
+            SwiftCodeIngestion.Result result = new SwiftCodeIngestion(threads).ingest(resources);
+            System.out.printf("threads=%-3d %,d ms (%,d codes, %d parts, %d cores available)%n",
+                    threads, result.elapsedMillis(), result.codes().size(), result.parts(), cores);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeParser;
+import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SwiftCodeParserTest {
+
+    private static final String RESOURCE_PATH = "data/Interns_2025_SWIFT_CODES.xlsx";
+
+    private final SwiftCodeParser parser = new SwiftCodeParser();
+
+    @Test
+    void testStreamingMatchesWorkbookParser() throws Exception {
+        List<SwiftCode> expected = parser.parseExcelFile(RESOURCE_PATH);
+
+        List<SwiftCode> streamed = new ArrayList<>();
+        long count = parser.streamExcelFile(RESOURCE_PATH, streamed::add);
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    void testStreamingSyntheticWorkbook(@TempDir Path dir) throws Exception {
+        List<SwiftCode> generated = SyntheticSwiftCodes.generate(2_000, 42);
+        Path file = SyntheticSwiftCodes.writeWorkbook(generated, dir.resolve("codes.xlsx"));
+
+        List<SwiftCode> streamed = new ArrayList<>();
+        parser.streamExcelFile(new FileSystemResource(file), streamed::add);
+
+        assertEquals(generated, streamed);
+    }
+
+    // mvn test -Dtest=SwiftCodeParserTest -Dparser.comparison=true [-Dparser.comparison.rows=1000000]
+    @Test
+    @EnabledIfSystemProperty(named = "parser.comparison", matches = "true")
+    void compareWorkbookAndStreamingParsers(@TempDir Path dir) throws Exception {
+        int rows = Integer.getInteger("parser.comparison.rows", 1_000_000);
+        Path file = SyntheticSwiftCodes.writeWorkbook(SyntheticSwiftCodes.generate(rows, 42), dir.resolve("codes.xlsx"));
+        System.out.printf("Synthetic workbook: %,d rows, %,d bytes%n", rows, Files.size(file));
+        // The workbook parser cannot even open sheets above POI's default 100 MB record limit.
+        IOUtils.setByteArrayMaxOverride(Integer.MAX_VALUE);
+
+        measure("streaming", () -> {
+            AtomicLong count = new AtomicLong();
+            parser.streamExcelFile(new FileSystemResource(file), code -> count.incrementAndGet());
+            return count.get();
+        });
+        measure("workbook", () -> {
+            try (InputStream is = Files.newInputStream(file)) {
+                return parser.parseExcelFile(is).size();
+            }
+        });
+    }
+
+    private static void measure(String name, ParseRun run) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.gc();
+        long heapBefore = usedHeap();
+        PeakHeapSampler sampler = new PeakHeapSampler();
+        sampler.start();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long count = run.parse();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        sampler.interrupt();
+        sampler.join();
+        System.out.printf("%-10s rows=%,d time=%,d ms allocated=%,d MB peakHeapDelta=%,d MB%n",
+                name, count, elapsed / 1_000_000, allocated >> 20, (sampler.peak - heapBefore) >> 20);
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @FunctionalInterface
+    private interface ParseRun {
+        long parse() throws Exception;
+    }
+
+    private static final class PeakHeapSampler extends Thread {
+
+        private volatile long peak;
+
+        private PeakHeapSampler() {
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peak = Math.max(peak, usedHeap());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
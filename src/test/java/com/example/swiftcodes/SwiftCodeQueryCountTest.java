@@ -0,0 +1,141 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.CountryRepository;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "swiftcodes.lookup.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+public class SwiftCodeQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SwiftCodeRepository repository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SwiftCodeLookup lookup;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAll();
+        countryRepository.save(new Country("PL", "POLAND"));
+
+        SwiftCode hq = new SwiftCode("QCNTPLPWXXX", "Count Bank HQ", "1 HQ Street", "PL", "POLAND", true, null);
+        SwiftCode first = new SwiftCode("QCNTPLPW001", "Count Bank Branch", "2 Branch Street", "PL", "POLAND", false, hq);
+        SwiftCode second = new SwiftCode("QCNTPLPW002", "Count Bank Branch", "3 Branch Street", "PL", "POLAND", false, hq);
+        repository.saveAll(List.of(hq, first, second));
+        lookup.invalidate();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testHeadquarterDetailsUseOneStatement() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/QCNTPLPWXXX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.branches", hasSize(2)));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testBranchDetailsUseOneStatement() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/QCNTPLPW001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isHeadquarter").value(false));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCountryListingUsesOneStatement() throws Exception {
+        mockMvc.perform(get("/v1/swift-codes/country/PL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(3)));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testUnchangedCountryListingUsesNoStatements() throws Exception {
+        String etag = mockMvc.perform(get("/v1/swift-codes/country/PL"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        statistics.clear();
+
+        mockMvc.perform(get("/v1/swift-codes/country/PL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes", hasSize(3)));
+        mockMvc.perform(get("/v1/swift-codes/country/PL").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        String detailTag = mockMvc.perform(get("/v1/swift-codes/QCNTPLPWXXX"))
+                .andReturn().getResponse().getHeader("ETag");
+        statistics.clear();
+        mockMvc.perform(get("/v1/swift-codes/QCNTPLPWXXX").header("If-None-Match", detailTag))
+                .andExpect(status().isNotModified());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testAddUsesExistenceCheckCountryLookupAndInsert() throws Exception {
+        mockMvc.perform(post("/v1/swift-codes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "swiftCode": "QCNTPLPW003",
+                                    "bankName": "Count Bank Branch",
+                                    "address": "4 Branch Street",
+                                    "countryISO2": "PL",
+                                    "countryName": "POLAND"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testDeleteBranchDoesNotLoadHeadquarter() throws Exception {
+        mockMvc.perform(delete("/v1/swift-codes/QCNTPLPW001")
+                        .param("bankName", "Count Bank Branch")
+                        .param("countryISO2", "PL"))
+                .andExpect(status().isOk());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
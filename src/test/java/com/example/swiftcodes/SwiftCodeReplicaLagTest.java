@@ -0,0 +1,99 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.CountryRepository;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Like {@link SwiftCodeReplicaRoutingTest}, but with a lag window and the change feed polling the
+ * primary several times within it, e.g. -Dreplica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1.
+ */
+@SpringBootTest(properties = {
+        "swiftcodes.datasource.replica.url=${replica.url}",
+        "swiftcodes.datasource.replica.max-lag=1s",
+        "swiftcodes.changefeed.enabled=true",
+        "swiftcodes.changefeed.poll-interval=200ms"
+})
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "replica.url", matches = ".+")
+public class SwiftCodeReplicaLagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SwiftCodeRepository repository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private SwiftCodeLookup lookup;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAllInBatch();
+        countryRepository.save(new Country("US", "UNITED STATES"));
+        repository.save(new SwiftCode("PRIMUS33XXX", "Primary Bank", "1 Main Street", "US", "UNITED STATES", true, null));
+
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS country (iso2 CHAR(2) PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS swift_code (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "swift_code CHAR(11), bank_name VARCHAR(255), address VARCHAR(255), countryiso2 CHAR(2), " +
+                "is_headquarter BOOLEAN, related_headquarter_id BIGINT)");
+        replicaJdbc.update("DELETE FROM swift_code");
+        replicaJdbc.update("DELETE FROM country");
+        replicaJdbc.update("INSERT INTO country (iso2, name) VALUES ('US', 'UNITED STATES')");
+        replicaJdbc.update("INSERT INTO swift_code (swift_code, bank_name, address, countryiso2, is_headquarter) " +
+                "VALUES ('REPLUS33XXX', 'Replica Bank', '2 Side Street', 'US', TRUE)");
+        lookup.invalidate();
+    }
+
+    @Test
+    void testReadsReturnToTheReplicaOnceTheLagHasPassed() throws Exception {
+        mockMvc.perform(post("/v1/swift-codes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new SwiftCode("NEWWUS33XXX", "New Bank", "3 New Street", "US", "UNITED STATES", true, null))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes[*].swiftCode", containsInAnyOrder("NEWWUS33XXX", "PRIMUS33XXX")));
+
+        // The change feed polls the primary about seven times meanwhile; none of its polls is a write.
+        Thread.sleep(1_500);
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes[*].swiftCode", contains("REPLUS33XXX")));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.SwiftCodeLookup;
+import com.example.swiftcodes.models.Country;
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.repositories.CountryRepository;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Needs a second database standing in for the replica, e.g.
+ * -Dreplica.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1 or a second MySQL schema.
+ * The replica is deliberately not kept in sync, so each read shows where it was routed.
+ */
+@SpringBootTest(properties = {
+        "swiftcodes.datasource.replica.url=${replica.url}",
+        "swiftcodes.datasource.replica.max-lag=0s"
+})
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "replica.url", matches = ".+")
+public class SwiftCodeReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SwiftCodeRepository repository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private SwiftCodeLookup lookup;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @BeforeEach
+    void setup() {
+        repository.deleteAllInBatch();
+        countryRepository.save(new Country("US", "UNITED STATES"));
+        repository.save(new SwiftCode("PRIMUS33XXX", "Primary Bank", "1 Main Street", "US", "UNITED STATES", true, null));
+
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS country (iso2 CHAR(2) PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS swift_code (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "swift_code CHAR(11), bank_name VARCHAR(255), address VARCHAR(255), countryiso2 CHAR(2), " +
+                "is_headquarter BOOLEAN, related_headquarter_id BIGINT)");
+        replicaJdbc.update("DELETE FROM swift_code");
+        replicaJdbc.update("DELETE FROM country");
+        replicaJdbc.update("INSERT INTO country (iso2, name) VALUES ('US', 'UNITED STATES')");
+        replicaJdbc.update("INSERT INTO swift_code (swift_code, bank_name, address, countryiso2, is_headquarter) " +
+                "VALUES ('REPLUS33XXX', 'Replica Bank', '2 Side Street', 'US', TRUE)");
+        lookup.invalidate();
+    }
+
+    @Test
+    void testReadOnlyQueriesGoToTheReplica() throws Exception {
+        double before = replicaConnections();
+
+        mockMvc.perform(get("/v1/swift-codes/country/US").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes[*].swiftCode", contains("REPLUS33XXX")));
+
+        assertTrue(replicaConnections() > before);
+    }
+
+    @Test
+    void testCachedListingsAreBuiltOnThePrimary() throws Exception {
+        // Kept until the country's tag changes again, so a lagging replica must not be cached under the new tag.
+        mockMvc.perform(get("/v1/swift-codes/country/US"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.swiftCodes[*].swiftCode", contains("PRIMUS33XXX")));
+    }
+
+    @Test
+    void testWritesAndTheLookupUseThePrimary() throws Exception {
+        mockMvc.perform(post("/v1/swift-codes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new SwiftCode("NEWWUS33XXX", "New Bank", "3 New Street", "US", "UNITED STATES", true, null))))
+                .andExpect(status().isOk());
+
+        assertEquals(2, new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM swift_code", Integer.class));
+        assertEquals(1, new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM swift_code", Integer.class));
+
+        // Details come from the lookup, which is loaded from the primary even inside a read-only transaction.
+        mockMvc.perform(get("/v1/swift-codes/PRIMUS33XXX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bankName").value("Primary Bank"));
+        mockMvc.perform(get("/v1/swift-codes/REPLUS33XXX"))
+                .andExpect(status().isNotFound());
+    }
+
+    private double replicaConnections() {
+        return meterRegistry.get("swiftcodes.datasource.connections").tag("target", "replica").counter().count();
+    }
+}
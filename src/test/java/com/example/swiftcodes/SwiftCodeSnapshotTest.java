@@ -0,0 +1,313 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.lookup.DirectoryStats;
+import com.example.swiftcodes.lookup.LongIntHashMap;
+import com.example.swiftcodes.lookup.SearchField;
+import com.example.swiftcodes.lookup.SwiftCodeCodec;
+import com.example.swiftcodes.lookup.SwiftCodeSnapshot;
+import com.example.swiftcodes.lookup.SwiftCodeSnapshotFile;
+import com.example.swiftcodes.models.SwiftCodeView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SwiftCodeSnapshotTest {
+
+    private static final SwiftCodeView HQ = view("BPKOPLPWXXX", true, null);
+    private static final SwiftCodeView BRANCH = view("BPKOPLPWWAW", false, "BPKOPLPWXXX");
+    private static final SwiftCodeView OTHER = view("ALBPPLPWXXX", true, null);
+
+    @Test
+    void testCodecRoundTripAndPrefix() {
+        long hq = SwiftCodeCodec.encode("BPKOPLPWXXX");
+        long branch = SwiftCodeCodec.encode("BPKOPLPWWAW");
+
+        assertEquals("BPKOPLPWXXX", SwiftCodeCodec.decode(hq));
+        assertEquals("HQ123001", SwiftCodeCodec.decode(SwiftCodeCodec.encode("HQ123001")));
+        assertEquals(hq, SwiftCodeCodec.headquarterOf(branch));
+        assertEquals(SwiftCodeCodec.prefix(hq), SwiftCodeCodec.prefix(branch));
+        assertNotEquals(SwiftCodeCodec.prefix(hq), SwiftCodeCodec.prefix(SwiftCodeCodec.encode("BPKOPLPXXXX")));
+        assertEquals("BPKOPLPW", SwiftCodeCodec.prefix("BPKOPLPWWAW"));
+        assertEquals("HQ1", SwiftCodeCodec.prefix("HQ1"));
+        assertTrue(SwiftCodeCodec.isHeadquarter(hq));
+        assertFalse(SwiftCodeCodec.isHeadquarter(branch));
+        assertFalse(SwiftCodeCodec.isHeadquarter(SwiftCodeCodec.encode("BPKOPLPW")));
+
+        // Packed codes sort like the strings, digits before letters and shorter codes before longer ones.
+        List<String> sorted = List.of("0AAAAAAAXXX", "9ZZZZZZZXXX", "A", "A0", "AZ", "BPKOPL", "BPKOPLP0XXX",
+                "BPKOPLPW", "BPKOPLPW0AW", "BPKOPLPWWAW", "BPKOPLPWXXX", "ZZZZZZZZZZZ");
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(SwiftCodeCodec.encode(sorted.get(i - 1)) < SwiftCodeCodec.encode(sorted.get(i)), sorted.get(i));
+            assertEquals(sorted.get(i), SwiftCodeCodec.decode(SwiftCodeCodec.encode(sorted.get(i))));
+        }
+
+        assertFalse(SwiftCodeCodec.isValid("bpkoplpwxxx"));
+        assertFalse(SwiftCodeCodec.isValid("BPKOPLPWXXXX"));
+        assertFalse(SwiftCodeCodec.isValid("BPKO-PLPW"));
+        assertFalse(SwiftCodeCodec.isValid(""));
+    }
+
+    @Test
+    void testLongIntHashMap() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        Random random = new Random(7);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            long key = 1 + (random.nextLong() & 0xFFFFL);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, -1).intValue(), map.remove(key));
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 0x10000L; key++) {
+            assertEquals(expected.getOrDefault(key, -1).intValue(), map.get(key));
+        }
+    }
+
+    @Test
+    void testSnapshotCopyOnWrite() {
+        SwiftCodeSnapshot base = SwiftCodeSnapshot.of(List.of(BRANCH, HQ));
+        assertEquals(List.of(BRANCH), base.branchesOf("BPKOPLPWXXX"));
+
+        SwiftCodeSnapshot added = base.with(OTHER).with(view("lower-case", false, null));
+        assertEquals(OTHER, added.find("ALBPPLPWXXX").orElseThrow());
+        assertTrue(added.find("lower-case").isPresent());
+        assertTrue(base.find("ALBPPLPWXXX").isEmpty());
+
+        SwiftCodeSnapshot removed = added.without("BPKOPLPWXXX");
+        assertTrue(removed.find("BPKOPLPWXXX").isEmpty());
+        assertTrue(removed.find("BPKOPLPWWAW").isEmpty());
+        assertEquals(2, removed.size());
+        assertEquals(BRANCH, added.find("BPKOPLPWWAW").orElseThrow());
+        assertEquals(HQ, removed.with(HQ).find("BPKOPLPWXXX").orElseThrow());
+    }
+
+    @Test
+    void testSnapshotMatchesSyntheticDirectory() {
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(5_000, 42));
+        SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views);
+
+        assertEquals(views.size(), snapshot.size());
+        for (SwiftCodeView view : views) {
+            assertEquals(view, snapshot.find(view.swiftCode()).orElseThrow());
+            if (view.headquarterCode() != null) {
+                assertTrue(snapshot.branchesOf(view.headquarterCode()).contains(view));
+            }
+        }
+    }
+
+    @Test
+    void testStatsFollowModifications() {
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(2_000, 42));
+        SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views);
+        Random random = new Random(11);
+
+        for (int step = 0; step < 200; step++) {
+            SwiftCodeView target = views.get(random.nextInt(views.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> snapshot = snapshot.without(target.swiftCode());
+                case 1 -> snapshot = snapshot.with(view(target.swiftCode().substring(0, 8) + "ZZZ", false, null));
+                case 2 -> snapshot = snapshot.with(new SwiftCodeView(target.swiftCode(), "Renamed Bank " + step % 5,
+                        target.address(), "XX", "NOWHERE", target.isHeadquarter(), target.headquarterCode()));
+                default -> snapshot = snapshot.apply(List.of(view("NEWXPLPW" + String.format("%03d", step), true, null)),
+                        target.isHeadquarter() ? List.of() : List.of(target.swiftCode()));
+            }
+            DirectoryStats recounted = SwiftCodeSnapshot.of(snapshot.all()).stats();
+            assertEquals(recounted.total(), snapshot.stats().total());
+            assertEquals(recounted.countries(), snapshot.stats().countries());
+        }
+        assertEquals(snapshot.size(), snapshot.stats().total().swiftCodes());
+    }
+
+    @Test
+    void testSearchMatchesScan() {
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(5_000, 42));
+        SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views);
+
+        String prefix = views.get(100).swiftCode().substring(0, 6);
+        List<String> expected = views.stream()
+                .map(SwiftCodeView::swiftCode)
+                .filter(code -> code.startsWith(prefix))
+                .sorted()
+                .toList();
+        assertEquals(expected, snapshot.search(prefix.toLowerCase(), SearchField.CODE, 0, 1000).stream()
+                .map(SwiftCodeView::swiftCode).toList());
+
+        String code = views.get(200).swiftCode();
+        String typo = code.substring(0, 5) + (code.charAt(5) == 'Q' ? 'R' : 'Q') + code.substring(6);
+        assertTrue(snapshot.search(typo, SearchField.CODE, 0, 10).isEmpty());
+        assertEquals(code, snapshot.search(typo, SearchField.CODE, 1, 10).get(0).swiftCode());
+
+        // A typo in a half-typed code still finds the codes it would complete to.
+        String typedPrefix = typo.substring(0, 7);
+        List<String> completions = views.stream()
+                .map(SwiftCodeView::swiftCode)
+                .filter(candidate -> candidate.startsWith(code.substring(0, 7)))
+                .sorted()
+                .toList();
+        assertTrue(codes(snapshot.search(typedPrefix, SearchField.CODE, 1, 1000)).containsAll(completions));
+        SwiftCodeSnapshot small = SwiftCodeSnapshot.of(List.of(HQ, BRANCH, OTHER));
+        assertTrue(small.search("PKO POLX", SearchField.BANK, 0, 10).isEmpty());
+        assertEquals(3, small.search("PKO POLX", SearchField.BANK, 1, 10).size());
+
+        SwiftCodeView bank = views.get(300);
+        String[] words = bank.bankName().split(" ");
+        List<SwiftCodeView> byBank = snapshot.search(words[1] + " " + words[2], SearchField.BANK, 0, 100);
+        assertFalse(byBank.isEmpty());
+        assertTrue(byBank.stream().allMatch(view -> view.bankName().equals(bank.bankName())));
+        assertTrue(byBank.contains(bank));
+
+        SwiftCodeSnapshot removed = snapshot.without(bank.swiftCode());
+        assertFalse(removed.search(bank.swiftCode(), SearchField.CODE, 0, 10).contains(bank));
+        assertTrue(snapshot.search(bank.swiftCode(), SearchField.CODE, 0, 10).contains(bank));
+    }
+
+    @Test
+    void testSearchFollowsIncrementalWrites() {
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(5_000, 42));
+        SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views);
+        snapshot.search("BANK", SearchField.ALL, 0, 1);
+
+        // Enough writes to pass the point where the derived index is due for a rebuild.
+        Random random = new Random(7);
+        for (int write = 1; write <= 1_500; write++) {
+            SwiftCodeView target = views.get(random.nextInt(views.size()));
+            switch (write % 3) {
+                case 0 -> snapshot = snapshot.with(new SwiftCodeView(target.swiftCode(), "RENAMED " + write + " BANK",
+                        target.address(), target.countryISO2(), target.countryName(), target.isHeadquarter(), target.headquarterCode()));
+                case 1 -> snapshot = snapshot.with(view(String.format("NEWBPL%05d", write), false, null));
+                default -> snapshot = snapshot.apply(List.of(), List.of(target.swiftCode()));
+            }
+            if (write % 250 == 0) {
+                SwiftCodeSnapshot rebuilt = SwiftCodeSnapshot.of(snapshot.all());
+                for (String query : List.of(target.swiftCode().substring(0, 5), "NEWBPL0", "NEWBPL00" + write / 10)) {
+                    assertEquals(codes(rebuilt.search(query, SearchField.CODE, 0, 1000)), codes(snapshot.search(query, SearchField.CODE, 0, 1000)), query);
+                    assertEquals(codes(rebuilt.search(query, SearchField.CODE, 1, 1000)), codes(snapshot.search(query, SearchField.CODE, 1, 1000)), query);
+                }
+                for (String query : List.of("RENAMED " + (write - 1), "RENAMD", "RENAMX", "PKO BANK", target.bankName())) {
+                    assertEquals(new HashSet<>(codes(rebuilt.search(query, SearchField.BANK, 1, 10_000))),
+                            new HashSet<>(codes(snapshot.search(query, SearchField.BANK, 1, 10_000))), query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSnapshotFileRoundTrip(@TempDir Path dir) throws Exception {
+        List<SwiftCodeView> views = new ArrayList<>(SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(5_000, 42)));
+        views.add(view("lower-case", false, null));
+        SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views).without(views.get(0).swiftCode());
+
+        Path file = dir.resolve("lookup.snapshot");
+        SwiftCodeSnapshotFile.write(snapshot, file, 7, 11, 13);
+        SwiftCodeSnapshotFile.Contents contents = SwiftCodeSnapshotFile.read(file).orElseThrow();
+
+        assertEquals(7, contents.sourceFingerprint());
+        assertEquals(11, contents.databaseFingerprint());
+        assertEquals(13, contents.directoryVersion());
+        assertEquals(new HashSet<>(snapshot.all()), new HashSet<>(contents.snapshot().all()));
+        SwiftCodeView branch = views.stream().filter(view -> view.headquarterCode() != null).skip(100).findFirst().orElseThrow();
+        assertEquals(snapshot.branchesOf(branch.headquarterCode()), contents.snapshot().branchesOf(branch.headquarterCode()));
+        assertTrue(contents.snapshot().find("lower-case").isPresent());
+    }
+
+    @Test
+    void testSnapshotFileRejectsDamage(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("lookup.snapshot");
+        assertTrue(SwiftCodeSnapshotFile.read(file).isEmpty());
+
+        SwiftCodeSnapshotFile.write(SwiftCodeSnapshot.of(List.of(HQ, BRANCH, OTHER)), file, 1, 1, 1);
+        byte[] valid = Files.readAllBytes(file);
+
+        byte[] flipped = valid.clone();
+        flipped[flipped.length - 40] ^= 1;
+        Files.write(file, flipped);
+        assertTrue(SwiftCodeSnapshotFile.read(file).isEmpty());
+
+        byte[] otherVersion = valid.clone();
+        otherVersion[11] = 99;
+        Files.write(file, otherVersion);
+        assertTrue(SwiftCodeSnapshotFile.read(file).isEmpty());
+
+        Files.write(file, java.util.Arrays.copyOf(valid, valid.length - 1));
+        assertTrue(SwiftCodeSnapshotFile.read(file).isEmpty());
+
+        Files.write(file, valid);
+        assertEquals(3, SwiftCodeSnapshotFile.read(file).orElseThrow().snapshot().size());
+    }
+
+    // mvn test -Dtest=SwiftCodeSnapshotTest -Dsnapshot.file=true [-Dsnapshot.file.rows=1000000]
+    @Test
+    @EnabledIfSystemProperty(named = "snapshot.file", matches = "true")
+    void measureSnapshotFile(@TempDir Path dir) throws Exception {
+        int rows = Integer.getInteger("snapshot.file.rows", 1_000_000);
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(rows, 42));
+        Path file = dir.resolve("lookup.snapshot");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views);
+            long built = System.nanoTime();
+            SwiftCodeSnapshotFile.write(snapshot, file, 1, 1, 1);
+            long written = System.nanoTime();
+            SwiftCodeSnapshot restored = SwiftCodeSnapshotFile.read(file).orElseThrow().snapshot();
+            long read = System.nanoTime();
+            assertEquals(rows, restored.size());
+            System.out.printf("rows=%,d file=%,d bytes build-from-views=%,d ms write=%,d ms mmap-read=%,d ms%n",
+                    rows, Files.size(file), (built - start) / 1_000_000, (written - built) / 1_000_000, (read - written) / 1_000_000);
+        }
+    }
+
+    // mvn test -Dtest=SwiftCodeSnapshotTest -Dsnapshot.footprint=true [-Dsnapshot.footprint.rows=1000000]
+    @Test
+    @EnabledIfSystemProperty(named = "snapshot.footprint", matches = "true")
+    void compareFootprintWithStringKeyedMaps() {
+        int rows = Integer.getInteger("snapshot.footprint.rows", 1_000_000);
+        // Copy every string, as rows materialized from JDBC do not share instances.
+        List<SwiftCodeView> views = SyntheticSwiftCodes.views(SyntheticSwiftCodes.generate(rows, 42)).stream()
+                .map(view -> new SwiftCodeView(new String(view.swiftCode()), new String(view.bankName()),
+                        new String(view.address()), new String(view.countryISO2()), new String(view.countryName()),
+                        view.isHeadquarter(), view.headquarterCode() != null ? new String(view.headquarterCode()) : null))
+                .toList();
+
+        Map<String, SwiftCodeView> byCode = new HashMap<>();
+        Map<String, List<SwiftCodeView>> branches = new HashMap<>();
+        for (SwiftCodeView view : views) {
+            byCode.put(view.swiftCode(), view);
+            if (view.headquarterCode() != null) {
+                branches.computeIfAbsent(view.headquarterCode(), hq -> new ArrayList<>()).add(view);
+            }
+        }
+        SwiftCodeSnapshot snapshot = SwiftCodeSnapshot.of(views);
+
+        long hashMaps = GraphLayout.parseInstance(byCode, branches).totalSize();
+        long compact = GraphLayout.parseInstance(snapshot).totalSize();
+        System.out.printf("%,d codes: String-keyed HashMaps %,d bytes (%d B/code), compact snapshot %,d bytes (%d B/code), %.0f%%%n",
+                rows, hashMaps, hashMaps / rows, compact, compact / rows, 100.0 * compact / hashMaps);
+        assertTrue(compact < hashMaps);
+    }
+
+    private static List<String> codes(List<SwiftCodeView> views) {
+        return views.stream().map(SwiftCodeView::swiftCode).toList();
+    }
+
+    private static SwiftCodeView view(String code, boolean headquarter, String headquarterCode) {
+        return new SwiftCodeView(code, "PKO BANK POLSKI", "ADDRESS OF " + code, "PL", "POLAND", headquarter, headquarterCode);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.models.SwiftCode;
+import com.example.swiftcodes.models.SwiftCodeView;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class SyntheticSwiftCodes {
+
+    private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String ALPHANUMERIC = LETTERS + "0123456789";
+    private static final String[][] COUNTRIES = {
+            {"PL", "POLAND"}, {"DE", "GERMANY"}, {"FR", "FRANCE"}, {"US", "UNITED STATES"},
+            {"GB", "UNITED KINGDOM"}, {"JP", "JAPAN"}, {"BR", "BRAZIL"}, {"ZA", "SOUTH AFRICA"}
+    };
+    private static final String[] HEADER = {
+            "COUNTRY ISO2 CODE", "SWIFT CODE", "CODE TYPE", "NAME", "ADDRESS", "TOWN NAME", "COUNTRY NAME", "TIME ZONE"
+    };
+
+    private SyntheticSwiftCodes() {
+    }
+
+    public static List<SwiftCode> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<SwiftCode> codes = new ArrayList<>(size);
+        Set<String> prefixes = new HashSet<>();
+        while (codes.size() < size) {
+            String[] country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+            String prefix = randomChars(random, LETTERS, 4) + country[0] + randomChars(random, ALPHANUMERIC, 2);
+            if (!prefixes.add(prefix)) {
+                continue;
+            }
+            String bankName = "BANK " + prefix.substring(0, 4) + " " + codes.size();
+
+            codes.add(new SwiftCode(prefix + "XXX", bankName, "HQ STREET " + codes.size(),
+                    country[0], country[1], true, null));
+
+            int branches = random.nextInt(12);
+            for (int i = 0; i < branches && codes.size() < size; i++) {
+                String branchCode = prefix + String.format("%03d", i + 1);
+                codes.add(new SwiftCode(branchCode, bankName, "BRANCH STREET " + codes.size(),
+                        country[0], country[1], false, null));
+            }
+        }
+        return codes;
+    }
+
+    public static List<SwiftCodeView> views(List<SwiftCode> codes) {
+        return codes.stream()
+                .map(code -> new SwiftCodeView(code.getSwiftCode(), code.getBankName(), code.getAddress(),
+                        code.getCountryISO2(), code.getCountryName(), code.isHeadquarter(),
+                        code.isHeadquarter() ? null : code.getSwiftCode().substring(0, 8) + "XXX"))
+                .toList();
+    }
+
+    public static Path writeWorkbook(List<SwiftCode> codes, Path target) throws IOException {
+        return writeSheets(List.of(codes), target);
+    }
+
+    public static Path writeSheets(List<List<SwiftCode>> sheets, Path target) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(new XSSFWorkbook(), 1000, true, true);
+             OutputStream out = Files.newOutputStream(target)) {
+            workbook.setCompressTempFiles(true);
+            for (int i = 0; i < sheets.size(); i++) {
+                Sheet sheet = workbook.createSheet("SWIFT CODES " + (i + 1));
+
+                Row header = sheet.createRow(0);
+                for (int column = 0; column < HEADER.length; column++) {
+                    header.createCell(column).setCellValue(HEADER[column]);
+                }
+
+                int rowNum = 1;
+                for (SwiftCode code : sheets.get(i)) {
+                    Row row = sheet.createRow(rowNum++);
+                    String[] cells = cells(code);
+                    for (int column = 0; column < cells.length; column++) {
+                        row.createCell(column).setCellValue(cells[column]);
+                    }
+                }
+            }
+
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return target;
+    }
+
+    public static Path writeCsv(List<SwiftCode> codes, Path target) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target)) {
+            writer.write(String.join(",", HEADER));
+            writer.newLine();
+            for (SwiftCode code : codes) {
+                writer.write(Arrays.stream(cells(code))
+                        .map(cell -> cell.contains(",") || cell.contains("\"") ? "\"" + cell.replace("\"", "\"\"") + "\"" : cell)
+                        .collect(Collectors.joining(",")));
+                writer.newLine();
+            }
+        }
+        return target;
+    }
+
+    private static String[] cells(SwiftCode code) {
+        return new String[]{code.getCountryISO2(), code.getSwiftCode(), "BIC11", code.getBankName(), code.getAddress(),
+                code.getCountryName(), code.getCountryName(), "Europe/Warsaw"};
+    }
+
+    private static String randomChars(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+}
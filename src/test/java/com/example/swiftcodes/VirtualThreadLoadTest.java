@@ -0,0 +1,67 @@
+package com.example.swiftcodes;
+
+import com.example.swiftcodes.models.SwiftCodeView;
+import com.example.swiftcodes.repositories.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true [-Dloadtest.concurrency=1000 -Dloadtest.seconds=20]
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class VirtualThreadLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 20));
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Map<String, LoadDriver.Result> platform = runWith(false);
+        Map<String, LoadDriver.Result> virtual = runWith(true);
+
+        System.out.printf("%nConcurrency %,d, %d s per run%n", CONCURRENCY, DURATION.toSeconds());
+        System.out.println("-- platform threads");
+        platform.values().forEach(System.out::println);
+        System.out.println("-- virtual threads");
+        virtual.values().forEach(System.out::println);
+
+        virtual.values().forEach(result -> assertTrue(result.requests() > 0, result.name()));
+    }
+
+    private Map<String, LoadDriver.Result> runWith(boolean virtualThreads) throws Exception {
+        // The lookup tier is disabled so every request really waits on the database.
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SwiftcodesApplication.class)
+                .profiles(virtualThreads ? "virtual-threads" : "default")
+                .properties(
+                        "server.port=0",
+                        "swiftcodes.lookup.enabled=false",
+                        "swiftcodes.rate-limit.enabled=false",
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + port));
+            return driver.closedLoop(targets(context), CONCURRENCY, Duration.ofSeconds(5), DURATION);
+        }
+    }
+
+    static List<LoadDriver.Target> targets(ConfigurableApplicationContext context) {
+        List<SwiftCodeView> codes = context.getBean(SwiftCodeRepository.class).findAllViews();
+        SwiftCodeView headquarter = codes.stream().filter(SwiftCodeView::isHeadquarter).findFirst().orElseThrow();
+        SwiftCodeView branch = codes.stream().filter(code -> !code.isHeadquarter()).findFirst().orElseThrow();
+
+        List<LoadDriver.Target> targets = new ArrayList<>();
+        targets.add(new LoadDriver.Target("headquarter", "/v1/swift-codes/" + headquarter.swiftCode()));
+        targets.add(new LoadDriver.Target("branch", "/v1/swift-codes/" + branch.swiftCode()));
+        targets.add(new LoadDriver.Target("country-page", "/v1/swift-codes/country/" + headquarter.countryISO2() + "?limit=50"));
+        return targets;
+    }
+}